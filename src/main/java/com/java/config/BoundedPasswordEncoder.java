@@ -0,0 +1,126 @@
+package com.java.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * BCrypt on a dedicated, bounded thread pool.
+ *
+ * Hashing is CPU bound, so the pool has one thread per core and a short
+ * queue in front of it. When the queue is full, or a hash waits longer than
+ * maxWaitMs, the caller gets PasswordHashingOverloadedException right away
+ * (503 for login and registration) instead of every Tomcat thread spinning
+ * on BCrypt while catalog pages wait.
+ *
+ * upgradeEncoding() reports hashes made with a lower strength, so
+ * DaoAuthenticationProvider rehashes them on the next successful login.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+	private final BCryptPasswordEncoder delegate;
+
+	private final ThreadPoolExecutor executor;
+
+	private final long maxWaitMs;
+
+	private final Timer encodeTimer;
+
+	private final Timer matchesTimer;
+
+	private final Counter rejections;
+
+	public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, long maxWaitMs,
+			MeterRegistry meterRegistry) {
+		this.delegate = new BCryptPasswordEncoder(strength);
+		this.maxWaitMs = maxWaitMs;
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+					Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+
+		this.encodeTimer = Timer.builder("vegana.password.hash")
+				.tag("operation", "encode")
+				.description("Queue wait plus BCrypt time")
+				.publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+		this.matchesTimer = Timer.builder("vegana.password.hash")
+				.tag("operation", "matches")
+				.description("Queue wait plus BCrypt time")
+				.publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+		this.rejections = Counter.builder("vegana.password.rejections")
+				.description("Hash requests refused because the hashing pool was saturated")
+				.register(meterRegistry);
+		meterRegistry.gauge("vegana.password.queue.size", executor, pool -> pool.getQueue().size());
+		meterRegistry.gauge("vegana.password.active", executor, ThreadPoolExecutor::getActiveCount);
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return run(encodeTimer, () -> delegate.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		// chỉ đọc tiền tố $2a$10$, không tốn CPU
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	private <T> T run(Timer timer, Callable<T> task) {
+		long start = System.nanoTime();
+		Future<T> future;
+		try {
+			future = executor.submit(task);
+		} catch (RejectedExecutionException e) {
+			rejections.increment();
+			throw new PasswordHashingOverloadedException("Password hashing queue is full");
+		}
+		try {
+			return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			rejections.increment();
+			throw new PasswordHashingOverloadedException("Password hashing took longer than " + maxWaitMs + " ms");
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new PasswordHashingOverloadedException("Interrupted while waiting for password hashing");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+}
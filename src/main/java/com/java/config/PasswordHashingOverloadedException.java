@@ -0,0 +1,17 @@
+package com.java.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// InternalAuthenticationServiceException: ProviderManager trả lỗi ngay, không thử provider khác.
+// Ngoài luồng đăng nhập (vd. đăng kí) Spring MVC trả 503 nhờ @ResponseStatus.
+@SuppressWarnings("serial")
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingOverloadedException extends InternalAuthenticationServiceException {
+
+	public PasswordHashingOverloadedException(String message) {
+		super(message);
+	}
+
+}
@@ -1,9 +1,27 @@
 package com.java.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+
+import com.java.service.ReadYourWrites;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -12,39 +30,122 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.util.Map;
 import java.util.Properties;
 
 @Configuration
 @EnableTransactionManagement
 public class PersistenceJPAConfig {
 
+	@Autowired
+	ConfigurableListableBeanFactory beanFactory;
+
+	@Value("${vegana.jdbc.batch-size:50}")
+	private int batchSize;
+
+	@Value("${vegana.cache.l2.enabled:true}")
+	private boolean secondLevelCacheEnabled;
+
+	@Value("${vegana.cache.l2.statistics:true}")
+	private boolean cacheStatistics;
+
+	// rỗng (profile h2): Hibernate tự nhận dialect từ kết nối
+	@Value("${spring.jpa.database-platform:org.hibernate.dialect.MySQL8Dialect}")
+	private String dialect;
+
 	@Bean
-	public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
+	public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
 		LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
-		em.setDataSource(dataSource());
+		em.setDataSource(dataSource);
 		em.setPackagesToScan(new String[] { "com.java.entity" });
 		JpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
 		em.setJpaVendorAdapter(vendorAdapter);
 		em.setJpaProperties(additionalProperties());
+		// entity listener (vd. CustomerCacheListener) là Spring bean, được inject như bình thường
+		em.getJpaPropertyMap().put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory));
 
 		return em;
 	}
 
+	// Pool HikariCP ghi (primary), dùng chung cho JPA và JdbcTemplate. URL / tài khoản trong spring.datasource.*,
+	// kích thước pool, timeout, leak detection trong spring.datasource.hikari.* (application.properties).
+	// Spring Boot tự xuất metrics hikaricp.connections.* (active, idle, pending, acquire...).
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	// Pool đọc (read replica), chỉ tạo khi có vegana.datasource.replica.url
 	@Bean
-	public DataSource dataSource() {
-		DriverManagerDataSource dataSource = new DriverManagerDataSource();
-		dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-		// Set collation to utf8mb4_general_ci to match existing database schema
-		dataSource.setUrl("jdbc:mysql://localhost:3306/vegana_store?useUnicode=true&characterEncoding=utf8&connectionCollation=utf8mb4_general_ci");
-		dataSource.setUsername("root");
-		dataSource.setPassword("123456");
-		return dataSource;
+	@ConditionalOnProperty("vegana.datasource.replica.url")
+	@ConfigurationProperties("vegana.datasource.replica.hikari")
+	public HikariDataSource replicaDataSource(DataSourceProperties properties,
+			@Value("${vegana.datasource.replica.url}") String url,
+			@Value("${vegana.datasource.replica.username:${spring.datasource.username:}}") String username,
+			@Value("${vegana.datasource.replica.password:${spring.datasource.password:}}") String password) {
+		HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+				.url(url).username(username).password(password).build();
+		replica.setPoolName("vegana-replica");
+		replica.setReadOnly(true);
+		return replica;
 	}
 
+	// Pool nhỏ riêng cho GET_LOCK của CustomerLockService (vegana.lock.mode=mysql): khóa giữ một kết nối
+	// suốt lúc thanh toán, nên không được lấy từ pool primary mà chính transaction đó cũng cần.
+	// Hết kết nối thì chờ tối đa vegana.lock.timeout-ms rồi báo không lấy được khóa.
 	@Bean
-	public PlatformTransactionManager transactionManager() {
+	@ConditionalOnProperty(name = "vegana.lock.mode", havingValue = "mysql")
+	public HikariDataSource lockDataSource(DataSourceProperties properties,
+			@Value("${vegana.lock.pool-size:10}") int poolSize,
+			@Value("${vegana.lock.timeout-ms:5000}") long timeoutMs) {
+		HikariDataSource lock = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		lock.setPoolName("vegana-lock");
+		lock.setMaximumPoolSize(poolSize);
+		lock.setMinimumIdle(1);
+		lock.setConnectionTimeout(Math.max(250, timeoutMs));
+		return lock;
+	}
+
+	@Bean
+	@ConditionalOnProperty("vegana.datasource.replica.url")
+	public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+			@Value("${vegana.datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+			@Value("${vegana.datasource.replica.lag-check:true}") boolean lagCheck, MeterRegistry meterRegistry) {
+		return new ReplicaLagMonitor(replicaDataSource, maxLagSeconds, lagCheck, meterRegistry);
+	}
+
+	// DataSource mà JPA, JdbcTemplate và transaction manager dùng. Có replica thì định tuyến
+	// readOnly -> replica, còn lại -> primary. Mọi câu lệnh được đo thời gian (StatementMetricsDataSource).
+	// Lazy proxy: chỉ lấy kết nối thật ở câu SQL đầu tiên, lúc đó cờ readOnly của transaction
+	// đã có (và transaction không chạy SQL nào thì không lấy kết nối).
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+			@Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+			ObjectProvider<ReplicaLagMonitor> replicaLagMonitor, ReadYourWrites readYourWrites,
+			MeterRegistry meterRegistry,
+			@Value("${vegana.jdbc.slow-query.threshold-ms:200}") long slowQueryThresholdMs,
+			@Value("${vegana.jdbc.slow-query.sample-rate:1.0}") double slowQuerySampleRate) {
+		DataSource target = primaryDataSource;
+		DataSource replica = replicaDataSource.getIfAvailable();
+		if (replica != null) {
+			ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaLagMonitor.getObject(),
+					readYourWrites, meterRegistry);
+			routing.setTargetDataSources(Map.of(ReplicaRoutingDataSource.PRIMARY, primaryDataSource,
+					ReplicaRoutingDataSource.REPLICA, replica));
+			routing.setDefaultTargetDataSource(primaryDataSource);
+			routing.afterPropertiesSet();
+			target = routing;
+		}
+		return new LazyConnectionDataSourceProxy(new StatementMetricsDataSource(target, meterRegistry,
+				slowQueryThresholdMs, slowQuerySampleRate));
+	}
+
+	@Bean
+	public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
 		JpaTransactionManager transactionManager = new JpaTransactionManager();
-		transactionManager.setEntityManagerFactory(entityManagerFactory().getObject());
+		transactionManager.setEntityManagerFactory(entityManagerFactory);
 
 		return transactionManager;
 	}
@@ -65,8 +166,34 @@ public class PersistenceJPAConfig {
 			ddlAuto = "none"; // default
 		}
 		properties.setProperty("hibernate.hbm2ddl.auto", ddlAuto);
-		properties.setProperty("hibernate.show_sql", "true");
-		properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL8Dialect");
+		// không dùng hibernate.show_sql (in mọi câu lệnh ra stdout, đồng bộ): câu lệnh chậm được log
+		// bởi StatementMetricsDataSource, bật tạm show_sql qua -Dhibernate.show_sql=true khi cần
+		properties.setProperty("hibernate.show_sql", System.getProperty("hibernate.show_sql", "false"));
+		// trả kết nối về pool sau mỗi transaction (mặc định của Spring là giữ đến hết EntityManager,
+		// tức hết request khi open-in-view): mỗi transaction được định tuyến primary/replica riêng
+		properties.setProperty(AvailableSettings.CONNECTION_HANDLING,
+				"DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+		if (!dialect.isBlank()) {
+			properties.setProperty("hibernate.dialect", dialect);
+		}
+		// gom INSERT / UPDATE / DELETE của một flush thành JDBC batch (rewriteBatchedStatements trên URL
+		// gộp tiếp thành một câu lệnh nhiều dòng). Entity id IDENTITY thì Hibernate vẫn INSERT từng dòng:
+		// MySQL không có sequence, các đường ghi nhiều dòng (chi tiết đơn hàng, outbox) dùng JdbcTemplate.batchUpdate
+		properties.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(batchSize));
+		properties.setProperty(AvailableSettings.ORDER_INSERTS, "true");
+		properties.setProperty(AvailableSettings.ORDER_UPDATES, "true");
+		properties.setProperty(AvailableSettings.BATCH_VERSIONED_DATA, "true");
+		// cache cấp 2 + query cache cho Category / Supplier / Product (@Cache trên entity),
+		// region và TTL trong ehcache.xml; thống kê xem ở /admin/cache
+		properties.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, String.valueOf(secondLevelCacheEnabled));
+		properties.setProperty(AvailableSettings.USE_QUERY_CACHE, String.valueOf(secondLevelCacheEnabled));
+		properties.setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_MODE, "ENABLE_SELECTIVE");
+		properties.setProperty(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+		properties.setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+		properties.setProperty("hibernate.javax.cache.uri", "ehcache.xml");
+		properties.setProperty(AvailableSettings.GENERATE_STATISTICS, String.valueOf(cacheStatistics));
+		// không log thống kê của từng session
+		properties.setProperty(AvailableSettings.LOG_SESSION_METRICS, "false");
 		return properties;
 	}
 }
@@ -0,0 +1,51 @@
+package com.java.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.java.config.RateLimitFilter.Route;
+import com.java.service.RateLimiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class RateLimitConfig {
+
+	@Value("${vegana.rate-limit.enabled:true}")
+	private boolean enabled;
+
+	@Value("${vegana.rate-limit.login.ip-per-minute:30}")
+	private int loginIpPerMinute;
+
+	@Value("${vegana.rate-limit.login.account-per-minute:10}")
+	private int loginAccountPerMinute;
+
+	@Value("${vegana.rate-limit.register.ip-per-minute:10}")
+	private int registerIpPerMinute;
+
+	@Value("${vegana.rate-limit.register.account-per-minute:0}")
+	private int registerAccountPerMinute;
+
+	@Value("${vegana.rate-limit.search.ip-per-minute:60}")
+	private int searchIpPerMinute;
+
+	// Chạy trước Spring Security (DEFAULT_FILTER_ORDER) để request bị chặn không tốn BCrypt hay truy vấn
+	@Bean
+	public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimiter rateLimiter, MeterRegistry meterRegistry) {
+		List<Route> routes = List.of(
+				new Route("login", "POST", "/doLogin", loginIpPerMinute, loginAccountPerMinute),
+				new Route("register", null, "/registered", registerIpPerMinute, registerAccountPerMinute),
+				new Route("search", null, "/searchProduct", searchIpPerMinute, 0));
+		FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+				new RateLimitFilter(rateLimiter, routes, meterRegistry));
+		registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+		registration.setEnabled(enabled);
+		return registration;
+	}
+
+}
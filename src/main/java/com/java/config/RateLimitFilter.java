@@ -0,0 +1,101 @@
+package com.java.config;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.java.service.RateLimiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rejects requests over their route's limits with 429 before Spring Security
+ * or a controller sees them. Each route has a per-IP limit and optionally a
+ * per-account limit keyed by the customerId form parameter.
+ *
+ * The IP is request.getRemoteAddr(). Behind the load balancer it is the
+ * client address from X-Forwarded-For, resolved by Tomcat's RemoteIpValve
+ * (server.forward-headers-strategy=native) for trusted internal proxies only.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	private final RateLimiter rateLimiter;
+
+	private final List<Route> routes;
+
+	private final MeterRegistry meterRegistry;
+
+	public RateLimitFilter(RateLimiter rateLimiter, List<Route> routes, MeterRegistry meterRegistry) {
+		this.rateLimiter = rateLimiter;
+		this.routes = routes;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		Route route = match(request);
+		if (route != null) {
+			long waitMs = rateLimiter.tryAcquire(route.name + "|ip|" + request.getRemoteAddr(), route.ipPerMinute);
+			String limitedBy = "ip";
+			if (waitMs == 0 && route.accountPerMinute > 0) {
+				String account = request.getParameter("customerId");
+				if (account != null && !account.isBlank()) {
+					waitMs = rateLimiter.tryAcquire(route.name + "|account|" + account.strip().toLowerCase(Locale.ROOT),
+							route.accountPerMinute);
+					limitedBy = "account";
+				}
+			}
+			if (waitMs > 0) {
+				meterRegistry.counter("vegana.rate-limit.rejected", "route", route.name, "key", limitedBy).increment();
+				response.setHeader("Retry-After", String.valueOf((waitMs + 999) / 1000));
+				response.sendError(429, "Quá nhiều yêu cầu, vui lòng thử lại sau");
+				return;
+			}
+		}
+		filterChain.doFilter(request, response);
+	}
+
+	private Route match(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		for (Route route : routes) {
+			if (route.path.equals(path) && (route.method == null || route.method.equalsIgnoreCase(request.getMethod()))) {
+				return route;
+			}
+		}
+		return null;
+	}
+
+	public static class Route {
+
+		private final String name;
+
+		private final String method;
+
+		private final String path;
+
+		private final int ipPerMinute;
+
+		private final int accountPerMinute;
+
+		/**
+		 * @param method null for any method
+		 * @param ipPerMinute 0 disables the per-IP limit
+		 * @param accountPerMinute 0 disables the per-account limit
+		 */
+		public Route(String name, String method, String path, int ipPerMinute, int accountPerMinute) {
+			this.name = name;
+			this.method = method;
+			this.path = path;
+			this.ipPerMinute = ipPerMinute;
+			this.accountPerMinute = accountPerMinute;
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.java.config;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replication-lag guard for the read replica.
+ *
+ * Polls SHOW REPLICA STATUS on the replica every
+ * vegana.datasource.replica.lag-check-ms. While the replica is more than
+ * maxLagSeconds behind, or its replication threads are stopped, or the check
+ * itself fails, isHealthy() is false and ReplicaRoutingDataSource sends every
+ * read to the primary. The replica starts as unhealthy until the first check.
+ *
+ * With checkEnabled false (a stand-in replica that is not a real MySQL
+ * replica, e.g. the same database or a local copy) the replica is always used.
+ */
+public class ReplicaLagMonitor {
+
+	private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+	private final JdbcTemplate replicaJdbcTemplate;
+
+	private final long maxLagSeconds;
+
+	private final boolean checkEnabled;
+
+	private volatile boolean healthy;
+
+	// -1: không biết độ trễ (replica dừng hoặc lỗi khi kiểm tra)
+	private volatile long lagSeconds = -1;
+
+	public ReplicaLagMonitor(DataSource replica, long maxLagSeconds, boolean checkEnabled,
+			MeterRegistry meterRegistry) {
+		this.replicaJdbcTemplate = new JdbcTemplate(replica);
+		this.maxLagSeconds = maxLagSeconds;
+		this.checkEnabled = checkEnabled;
+		this.healthy = !checkEnabled;
+		meterRegistry.gauge("vegana.datasource.replica.lag.seconds", this, monitor -> monitor.lagSeconds);
+		meterRegistry.gauge("vegana.datasource.replica.healthy", this, monitor -> monitor.healthy ? 1 : 0);
+	}
+
+	public boolean isHealthy() {
+		return healthy;
+	}
+
+	@Scheduled(fixedDelayString = "${vegana.datasource.replica.lag-check-ms:1000}")
+	public void check() {
+		if (!checkEnabled) {
+			return;
+		}
+		long lag;
+		try {
+			// MySQL 8.0.22+; bản cũ hơn dùng SHOW SLAVE STATUS / Seconds_Behind_Master
+			lag = replicaJdbcTemplate.query("SHOW REPLICA STATUS", rs -> {
+				if (!rs.next()) {
+					return -1L;
+				}
+				long seconds = rs.getLong("Seconds_Behind_Source");
+				return rs.wasNull() ? -1L : seconds;
+			});
+		} catch (RuntimeException e) {
+			lag = -1;
+			log.debug("Replica lag check failed", e);
+		}
+		boolean nowHealthy = lag >= 0 && lag <= maxLagSeconds;
+		if (nowHealthy != healthy) {
+			if (nowHealthy) {
+				log.info("Replica caught up ({} s behind), routing reads to it again", lag);
+			} else {
+				log.warn("Replica is {} behind, routing reads to the primary",
+						lag < 0 ? "not replicating" : lag + " s");
+			}
+		}
+		lagSeconds = lag;
+		healthy = nowHealthy;
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.java.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.java.entity.Customer;
+import com.java.service.ReadYourWrites;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends connections for @Transactional(readOnly = true) work to the replica
+ * and everything else to the primary.
+ *
+ * A read still goes to the primary when the replica is lagging (see
+ * ReplicaLagMonitor) or when the current customer wrote recently (see
+ * ReadYourWrites). Work outside a transaction always uses the primary.
+ *
+ * The decision is made when a physical connection is fetched, so this must
+ * sit behind a LazyConnectionDataSourceProxy: JpaTransactionManager asks for
+ * the connection before the read-only flag of the transaction is published.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	static final String PRIMARY = "primary";
+
+	static final String REPLICA = "replica";
+
+	private final ReplicaLagMonitor lagMonitor;
+
+	private final ReadYourWrites readYourWrites;
+
+	private final Counter primaryReads;
+
+	private final Counter replicaReads;
+
+	private final Counter writes;
+
+	public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWrites readYourWrites,
+			MeterRegistry meterRegistry) {
+		this.lagMonitor = lagMonitor;
+		this.readYourWrites = readYourWrites;
+		this.primaryReads = counter(meterRegistry, PRIMARY, "read-only");
+		this.replicaReads = counter(meterRegistry, REPLICA, "read-only");
+		this.writes = counter(meterRegistry, PRIMARY, "read-write");
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()
+				|| !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			writes.increment();
+			return PRIMARY;
+		}
+		if (!lagMonitor.isHealthy() || readYourWrites.isSticky(currentCustomerId())) {
+			primaryReads.increment();
+			return PRIMARY;
+		}
+		replicaReads.increment();
+		return REPLICA;
+	}
+
+	private static String currentCustomerId() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && authentication.getPrincipal() instanceof Customer customer) {
+			return customer.getCustomerId();
+		}
+		return null;
+	}
+
+	private static Counter counter(MeterRegistry meterRegistry, String target, String access) {
+		return Counter.builder("vegana.datasource.routing")
+				.tag("target", target)
+				.tag("access", access)
+				.description("Physical connections handed out by the read/write router")
+				.register(meterRegistry);
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.java.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class RequestStatementConfig implements WebMvcConfigurer {
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${vegana.jdbc.request-stats.header:false}")
+	private boolean exposeHeader;
+
+	@Value("${vegana.jdbc.request-stats.warn-threshold:20}")
+	private int warnThreshold;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new RequestStatementInterceptor(meterRegistry, exposeHeader, warnThreshold));
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.java.config;
+
+/**
+ * Counts the JDBC statements run on the current thread while a web request
+ * is being handled.
+ *
+ * RequestStatementInterceptor opens the count when a handler starts and closes
+ * it after the view is rendered; StatementMetricsDataSource increments it for
+ * every execute / executeQuery / executeUpdate / executeBatch. Outside a
+ * request (schedulers, workers) there is no count and increment() does nothing.
+ */
+public final class RequestStatementCounter {
+
+	private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+	private RequestStatementCounter() {
+	}
+
+	public static void start() {
+		COUNT.set(new int[1]);
+	}
+
+	static void increment() {
+		int[] count = COUNT.get();
+		if (count != null) {
+			count[0]++;
+		}
+	}
+
+	// -1 khi không có request nào đang được đếm
+	public static int current() {
+		int[] count = COUNT.get();
+		return count == null ? -1 : count[0];
+	}
+
+	public static int stop() {
+		int count = current();
+		COUNT.remove();
+		return count;
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.java.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL statements each controller request runs, @ModelAttribute
+ * methods and view rendering included.
+ *
+ * Every count goes to the vegana.http.sql.statements summary, tagged by the
+ * matched URI pattern; a request over warnThreshold statements is logged,
+ * which is how an N+1 query shows up. With exposeHeader the count so far is
+ * also sent as the X-Sql-Statements header before the view is rendered, so
+ * tests (SqlBudgetTest) can hold each page to a statement budget.
+ */
+public class RequestStatementInterceptor implements HandlerInterceptor {
+
+	public static final String HEADER = "X-Sql-Statements";
+
+	private static final Logger log = LoggerFactory.getLogger(RequestStatementInterceptor.class);
+
+	private final MeterRegistry meterRegistry;
+
+	private final boolean exposeHeader;
+
+	private final int warnThreshold;
+
+	private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+	public RequestStatementInterceptor(MeterRegistry meterRegistry, boolean exposeHeader, int warnThreshold) {
+		this.meterRegistry = meterRegistry;
+		this.exposeHeader = exposeHeader;
+		this.warnThreshold = warnThreshold;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof HandlerMethod) {
+			RequestStatementCounter.start();
+		}
+		return true;
+	}
+
+	// trước khi render view: header vẫn còn gửi được
+	@Override
+	public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+			ModelAndView modelAndView) {
+		int count = RequestStatementCounter.current();
+		if (exposeHeader && count >= 0 && !response.isCommitted()) {
+			response.setHeader(HEADER, String.valueOf(count));
+		}
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		int count = RequestStatementCounter.stop();
+		if (count < 0) {
+			return;
+		}
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+		summary(uri).record(count);
+		if (warnThreshold > 0 && count > warnThreshold) {
+			log.warn("{} {} ran {} SQL statements (threshold {})", request.getMethod(), uri, count, warnThreshold);
+		}
+	}
+
+	private DistributionSummary summary(String uri) {
+		return summaries.computeIfAbsent(uri, u -> DistributionSummary.builder("vegana.http.sql.statements")
+				.tag("uri", u)
+				.description("SQL statements run per request")
+				.register(meterRegistry));
+	}
+
+}
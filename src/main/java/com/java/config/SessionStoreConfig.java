@@ -0,0 +1,102 @@
+package com.java.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.java.repository.SessionStoreRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * HTTP sessions live in the SPRING_SESSION tables (Spring Session JDBC, set up
+ * by Spring Boot because spring-session-jdbc is on the classpath), so any node
+ * can serve any request and a restart does not log customers out.
+ *
+ * Attributes are written with CompactSessionSerializer and, as Spring Session
+ * does, deserialized only when the request reads them. Session reads and
+ * writes are not read-only transactions, so they always go to the primary.
+ *
+ * Expired sessions are deleted here in batches of vegana.session.cleanup.batch-size
+ * instead of by Spring Session's single DELETE (spring.session.jdbc.cleanup-cron
+ * is off), so the cleanup never holds locks on a large part of the table at
+ * once. Each node runs it; batches from two nodes just take turns.
+ *
+ * The same job refreshes vegana.session.stored (live sessions) and
+ * vegana.session.bytes.per-session, the average stored attribute size of a
+ * live session. The latter times the expected number of concurrent users
+ * gives the session storage to plan for.
+ *
+ * Another store (e.g. Redis) plugs in by declaring its SessionRepository bean;
+ * in-memory Tomcat sessions come back by excluding SessionAutoConfiguration.
+ */
+@Configuration
+public class SessionStoreConfig implements BeanClassLoaderAware {
+
+	private static final Logger log = LoggerFactory.getLogger(SessionStoreConfig.class);
+
+	private final SessionStoreRepository sessionStoreRepository;
+
+	private final AtomicLong storedSessions = new AtomicLong();
+
+	private final AtomicLong bytesPerSession = new AtomicLong();
+
+	@Value("${vegana.session.cleanup.batch-size:500}")
+	private int cleanupBatchSize;
+
+	@Value("${vegana.session.compress-threshold:512}")
+	private int compressThreshold;
+
+	private ClassLoader classLoader;
+
+	public SessionStoreConfig(SessionStoreRepository sessionStoreRepository, MeterRegistry meterRegistry) {
+		this.sessionStoreRepository = sessionStoreRepository;
+		meterRegistry.gauge("vegana.session.stored", storedSessions);
+		meterRegistry.gauge("vegana.session.bytes.per-session", bytesPerSession);
+	}
+
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	// Spring Session dùng bean tên springSessionConversionService để chuyển thuộc tính <-> byte[]
+	@Bean
+	public ConversionService springSessionConversionService(MeterRegistry meterRegistry) {
+		CompactSessionSerializer serializer = new CompactSessionSerializer(classLoader, compressThreshold,
+				meterRegistry);
+		GenericConversionService conversionService = new GenericConversionService();
+		conversionService.addConverter(Object.class, byte[].class, new SerializingConverter(serializer));
+		conversionService.addConverter(byte[].class, Object.class, new DeserializingConverter(serializer));
+		return conversionService;
+	}
+
+	@Scheduled(initialDelayString = "${vegana.session.cleanup-ms:60000}",
+			fixedDelayString = "${vegana.session.cleanup-ms:60000}")
+	public void purgeExpiredSessions() {
+		long now = System.currentTimeMillis();
+		int deleted = 0;
+		int batch;
+		// mỗi lô là một câu DELETE tự commit: khoá chỉ giữ trên một lô
+		do {
+			batch = sessionStoreRepository.deleteExpired(now, cleanupBatchSize);
+			deleted += batch;
+		} while (batch >= cleanupBatchSize);
+		storedSessions.set(sessionStoreRepository.countActive(now));
+		bytesPerSession.set(Math.round(sessionStoreRepository.averageBytesPerSession(now)));
+		if (deleted > 0) {
+			log.debug("Deleted {} expired HTTP sessions", deleted);
+		}
+	}
+
+}
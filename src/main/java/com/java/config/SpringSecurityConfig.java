@@ -1,6 +1,7 @@
 package com.java.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -10,11 +11,14 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.savedrequest.HttpSessionRequestCache;
 
 import com.java.service.VeganaService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 public class SpringSecurityConfig {
@@ -23,9 +27,25 @@ public class SpringSecurityConfig {
 	@Lazy
 	private VeganaService veganaService;
 
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${vegana.password.bcrypt-strength:10}")
+	private int bcryptStrength;
+
+	@Value("${vegana.password.threads:0}")
+	private int hashThreads;
+
+	@Value("${vegana.password.queue-capacity:64}")
+	private int hashQueueCapacity;
+
+	@Value("${vegana.password.max-wait-ms:2000}")
+	private long hashMaxWaitMs;
+
+	// Băm mật khẩu trên pool riêng (mặc định mỗi core một thread), không trên thread của Tomcat
 	@Bean
-	public BCryptPasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public PasswordEncoder passwordEncoder() {
+		return new BoundedPasswordEncoder(bcryptStrength, hashThreads, hashQueueCapacity, hashMaxWaitMs, meterRegistry);
 	}
 
 	@Bean
@@ -33,6 +53,8 @@ public class SpringSecurityConfig {
 		DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
 		authProvider.setUserDetailsService((UserDetailsService) veganaService);
 		authProvider.setPasswordEncoder(passwordEncoder());
+		// đổi bcrypt-strength: hash cũ được băm lại khi đăng nhập thành công
+		authProvider.setUserDetailsPasswordService(veganaService);
 		return authProvider;
 	}
 
@@ -41,6 +63,12 @@ public class SpringSecurityConfig {
 		return authConfig.getAuthenticationManager();
 	}
 
+	private HttpSessionRequestCache noSessionCreatingRequestCache() {
+		HttpSessionRequestCache requestCache = new HttpSessionRequestCache();
+		requestCache.setCreateSessionAllowed(false);
+		return requestCache;
+	}
+
 	@Bean
 	public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 		http.csrf(csrf -> csrf.disable())
@@ -51,17 +79,20 @@ public class SpringSecurityConfig {
 				.requestMatchers("/checkout").hasAnyRole("USER", "ADMIN")
 				// Trang chỉ dành cho ADMIN
 				.requestMatchers("/admin/**").hasRole("ADMIN")
+				.requestMatchers("/actuator/**").hasRole("ADMIN")
 				.anyRequest().permitAll()
 			)
 			.exceptionHandling(exception -> exception
 				.accessDeniedPage("/403")
 			)
+			// Khách chưa đăng nhập không có session: chỉ lưu request đang chờ login khi đã có session
+			.requestCache(cache -> cache.requestCache(noSessionCreatingRequestCache()))
 			.formLogin(form -> form
 				.loginProcessingUrl("/doLogin")
 				.loginPage("/login")
 				.defaultSuccessUrl("/?login_success")
 				.successHandler(new SuccessHandler())
-				.failureUrl("/login?error=true")
+				.failureHandler(new LoginFailureHandler("/login?error=true"))
 				.usernameParameter("customerId")
 				.passwordParameter("password")
 			)
@@ -0,0 +1,276 @@
+package com.java.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every JDBC statement, from JPA and JdbcTemplate alike, replacing
+ * hibernate.show_sql.
+ *
+ * Each execute / executeQuery / executeUpdate / executeBatch is recorded in
+ * the vegana.jdbc.statement timer (tagged by operation). Only statements
+ * slower than slowThresholdMs are logged, with their bind values, and only a
+ * sampleRate fraction of those, on the vegana.slow-query logger, which
+ * logback-spring.xml writes through an async appender. Fast statements cost
+ * a timer update and nothing else. Statements run while a web request is
+ * handled are also counted in RequestStatementCounter.
+ */
+public class StatementMetricsDataSource extends DelegatingDataSource {
+
+	private static final Logger slowQueryLog = LoggerFactory.getLogger("vegana.slow-query");
+
+	private static final int MAX_SQL_LENGTH = 2000;
+
+	private static final int MAX_VALUE_LENGTH = 100;
+
+	private final MeterRegistry meterRegistry;
+
+	private final long slowThresholdNanos;
+
+	private final double sampleRate;
+
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+	private final Counter slowStatements;
+
+	public StatementMetricsDataSource(DataSource target, MeterRegistry meterRegistry, long slowThresholdMs,
+			double sampleRate) {
+		super(target);
+		this.meterRegistry = meterRegistry;
+		this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+		this.sampleRate = sampleRate;
+		this.slowStatements = Counter.builder("vegana.jdbc.slow-statements")
+				.description("Statements slower than the slow-query threshold, logged or not")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return wrap(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return wrap(super.getConnection(username, password));
+	}
+
+	private Connection wrap(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(StatementMetricsDataSource.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new ConnectionHandler(connection));
+	}
+
+	private void record(String sql, Map<Integer, Object> parameters, int batchCount, long nanos) {
+		timer(operation(sql)).record(nanos, TimeUnit.NANOSECONDS);
+		RequestStatementCounter.increment();
+		if (nanos < slowThresholdNanos) {
+			return;
+		}
+		slowStatements.increment();
+		if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+			return;
+		}
+		if (slowQueryLog.isWarnEnabled()) {
+			slowQueryLog.warn("{} ms{}: {} {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+					batchCount > 0 ? " (batch of " + batchCount + ")" : "", truncate(sql, MAX_SQL_LENGTH),
+					describe(parameters));
+		}
+	}
+
+	private Timer timer(String operation) {
+		return timers.computeIfAbsent(operation, op -> Timer.builder("vegana.jdbc.statement")
+				.tag("operation", op)
+				.description("JDBC statement execution time")
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.publishPercentileHistogram()
+				.register(meterRegistry));
+	}
+
+	// select / insert / update / delete / call / other: ít tag, không theo câu SQL
+	private static String operation(String sql) {
+		if (sql == null) {
+			return "other";
+		}
+		String trimmed = sql.stripLeading();
+		int end = 0;
+		while (end < trimmed.length() && end < 8 && Character.isLetter(trimmed.charAt(end))) {
+			end++;
+		}
+		String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+		switch (keyword) {
+		case "select":
+		case "insert":
+		case "update":
+		case "delete":
+		case "call":
+			return keyword;
+		default:
+			return trimmed.startsWith("{") ? "call" : "other";
+		}
+	}
+
+	private static String describe(Map<Integer, Object> parameters) {
+		if (parameters == null || parameters.isEmpty()) {
+			return "";
+		}
+		StringBuilder text = new StringBuilder("[");
+		parameters.forEach((index, value) -> {
+			if (text.length() > 1) {
+				text.append(", ");
+			}
+			text.append(index).append('=').append(value == null ? "null" : truncate(String.valueOf(value),
+					MAX_VALUE_LENGTH));
+		});
+		return text.append(']').toString();
+	}
+
+	private static String truncate(String value, int length) {
+		return value.length() <= length ? value : value.substring(0, length) + "...";
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private final class ConnectionHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		ConnectionHandler(Connection target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "unwrap":
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+				break;
+			default:
+				break;
+			}
+			Object result = StatementMetricsDataSource.invoke(target, method, args);
+			if (result instanceof Statement statement) {
+				String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+				Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+						: result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+				return Proxy.newProxyInstance(StatementMetricsDataSource.class.getClassLoader(),
+						new Class<?>[] { type }, new StatementHandler(statement, sql, proxy));
+			}
+			return result;
+		}
+	}
+
+	private final class StatementHandler implements InvocationHandler {
+
+		private final Statement target;
+
+		private final Object connection;
+
+		// câu SQL của PreparedStatement; null với Statement thường (SQL nằm ở tham số execute)
+		private final String preparedSql;
+
+		private Map<Integer, Object> parameters;
+
+		private int batchCount;
+
+		private String batchSql;
+
+		StatementHandler(Statement target, String preparedSql, Object connection) {
+			this.target = target;
+			this.preparedSql = preparedSql;
+			this.connection = connection;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+					&& method.getDeclaringClass() != Statement.class) {
+				if (parameters == null) {
+					parameters = new TreeMap<>();
+				}
+				parameters.put(index, name.equals("setNull") ? null : args[1]);
+				return StatementMetricsDataSource.invoke(target, method, args);
+			}
+			switch (name) {
+			case "getConnection":
+				return connection;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "addBatch":
+				batchCount++;
+				if (args != null && args.length == 1) {
+					batchSql = (String) args[0];
+				}
+				return StatementMetricsDataSource.invoke(target, method, args);
+			case "clearBatch":
+				batchCount = 0;
+				return StatementMetricsDataSource.invoke(target, method, args);
+			case "clearParameters":
+				parameters = null;
+				return StatementMetricsDataSource.invoke(target, method, args);
+			case "execute":
+			case "executeQuery":
+			case "executeUpdate":
+			case "executeLargeUpdate":
+			case "executeBatch":
+			case "executeLargeBatch":
+				return timed(method, args);
+			default:
+				return StatementMetricsDataSource.invoke(target, method, args);
+			}
+		}
+
+		private Object timed(Method method, Object[] args) throws Throwable {
+			boolean batch = method.getName().endsWith("Batch");
+			String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+					: preparedSql != null ? preparedSql : batchSql;
+			int count = batch ? batchCount : 0;
+			long start = System.nanoTime();
+			try {
+				return StatementMetricsDataSource.invoke(target, method, args);
+			} finally {
+				record(sql, batch ? null : parameters, count, System.nanoTime() - start);
+				if (batch) {
+					batchCount = 0;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.java.config.h2;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * The stored procedures of vegana_store.sql for the h2 profile.
+ *
+ * H2 runs procedures as static Java methods bound with CREATE ALIAS
+ * (db/h2/V2__routines.sql); the connection argument is the caller's, so the
+ * work joins its transaction just like a MySQL CALL. Each method follows the
+ * MySQL body statement by statement.
+ */
+public final class H2Procedures {
+
+	private H2Procedures() {
+	}
+
+	// UpdateOrInsertIntoCart: thêm 1 sản phẩm vào giỏ, đã có thì tăng số lượng và giá theo
+	public static void updateOrInsertIntoCart(Connection connection, String customerId, int productId)
+			throws SQLException {
+		Integer existingQuantity = null;
+		try (PreparedStatement ps = connection.prepareStatement(
+				"SELECT quantity FROM carts WHERE customerId = ? AND productId = ?")) {
+			ps.setString(1, customerId);
+			ps.setInt(2, productId);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					existingQuantity = (Integer) rs.getObject(1);
+				}
+			}
+		}
+		if (existingQuantity != null) {
+			try (PreparedStatement ps = connection.prepareStatement("UPDATE carts SET quantity = ?, "
+					+ "price = (price / ?) * ? WHERE customerId = ? AND productId = ?")) {
+				ps.setInt(1, existingQuantity + 1);
+				ps.setInt(2, existingQuantity);
+				ps.setInt(3, existingQuantity + 1);
+				ps.setString(4, customerId);
+				ps.setInt(5, productId);
+				ps.executeUpdate();
+			}
+			return;
+		}
+		try (PreparedStatement ps = connection.prepareStatement("INSERT INTO carts (customerId, productId, quantity, price) "
+				+ "SELECT ?, p.productId, 1, (p.price - (p.price * p.discount / 100)) FROM products p WHERE p.productId = ?")) {
+			ps.setString(1, customerId);
+			ps.setInt(2, productId);
+			ps.executeUpdate();
+		}
+	}
+
+	// AddOrUpdateProduct: tên (trim, chữ thường) đã có thì cộng số lượng, chưa có thì thêm sản phẩm
+	public static void addOrUpdateProduct(Connection connection, String description, Double discount, Date enteredDate,
+			String image, String name, Double price, Integer quantity, Integer categoryId, Integer supplierId)
+			throws SQLException {
+		String normalizedName = name == null ? null : name.trim().toLowerCase();
+		int addedQuantity = quantity == null ? 0 : quantity;
+		try (PreparedStatement ps = connection.prepareStatement(
+				"UPDATE products SET quantity = quantity + ? WHERE LOWER(TRIM(name)) = ?")) {
+			ps.setInt(1, addedQuantity);
+			ps.setString(2, normalizedName);
+			if (ps.executeUpdate() > 0) {
+				return;
+			}
+		}
+		try (PreparedStatement ps = connection.prepareStatement("INSERT INTO products (description, discount, enteredDate, "
+				+ "image, name, price, quantity, categoryId, supplierId) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+			ps.setString(1, description);
+			ps.setObject(2, discount, Types.DOUBLE);
+			ps.setDate(3, enteredDate);
+			ps.setString(4, image);
+			ps.setString(5, normalizedName);
+			ps.setObject(6, price, Types.DOUBLE);
+			ps.setInt(7, addedQuantity);
+			ps.setObject(8, categoryId, Types.INTEGER);
+			ps.setObject(9, supplierId, Types.INTEGER);
+			ps.executeUpdate();
+		}
+	}
+
+}
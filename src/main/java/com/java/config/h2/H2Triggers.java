@@ -0,0 +1,114 @@
+package com.java.config.h2;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.h2.tools.TriggerAdapter;
+
+/**
+ * The triggers of vegana_store.sql for the h2 profile.
+ *
+ * H2 triggers are Java classes named in CREATE TRIGGER ... CALL
+ * (db/h2/V2__routines.sql), one class per MySQL trigger with the same name.
+ * TriggerAdapter hands over OLD and NEW as result sets, so the bodies read
+ * columns by name as the MySQL ones do.
+ */
+public final class H2Triggers {
+
+	static final String STATUS_PENDING = "Đang Chờ Xử Lý";
+
+	static final String STATUS_PAID = "Đã Thanh Toán";
+
+	static final String STATUS_SHIPPING = "Đang Giao Dịch";
+
+	private H2Triggers() {
+	}
+
+	// check_product_quantity: BEFORE UPDATE ON carts
+	public static class CheckProductQuantity extends TriggerAdapter {
+
+		@Override
+		public void fire(Connection connection, ResultSet oldRow, ResultSet newRow) throws SQLException {
+			Integer quantity = (Integer) newRow.getObject("quantity");
+			Integer productQuantity = null;
+			try (PreparedStatement ps = connection.prepareStatement("SELECT quantity FROM products WHERE productId = ?")) {
+				ps.setObject(1, newRow.getObject("productId"));
+				try (ResultSet rs = ps.executeQuery()) {
+					if (rs.next()) {
+						productQuantity = (Integer) rs.getObject(1);
+					}
+				}
+			}
+			if (quantity != null && productQuantity != null && quantity > productQuantity) {
+				throw new SQLException("Số lượng mặt hàng trong giỏ hàng không được vượt quá số lượng mặt hàng có "
+						+ "trong bảng sản phẩm", "45000");
+			}
+		}
+	}
+
+	// delete_cart_item: AFTER UPDATE ON carts, số lượng về 0 thì bỏ dòng khỏi giỏ
+	public static class DeleteCartItem extends TriggerAdapter {
+
+		@Override
+		public void fire(Connection connection, ResultSet oldRow, ResultSet newRow) throws SQLException {
+			if (Objects.equals(newRow.getObject("quantity"), 0)) {
+				update(connection, "DELETE FROM carts WHERE cartId = ?", newRow.getObject("cartId"));
+			}
+		}
+	}
+
+	// create_cart_for_new_customer: AFTER INSERT ON customers
+	public static class CreateCartForNewCustomer extends TriggerAdapter {
+
+		@Override
+		public void fire(Connection connection, ResultSet oldRow, ResultSet newRow) throws SQLException {
+			update(connection, "INSERT INTO carts (customerId) VALUES (?)", newRow.getObject("customerId"));
+		}
+	}
+
+	// updateProductQuantityAfterStatusChange: AFTER UPDATE ON orderdetails, trừ / trả kho khi đổi trạng thái
+	public static class UpdateProductQuantityAfterStatusChange extends TriggerAdapter {
+
+		@Override
+		public void fire(Connection connection, ResultSet oldRow, ResultSet newRow) throws SQLException {
+			String oldStatus = oldRow.getString("status");
+			String newStatus = newRow.getString("status");
+			int sign;
+			if ((STATUS_PENDING.equals(oldStatus) || STATUS_SHIPPING.equals(oldStatus)) && STATUS_PAID.equals(newStatus)) {
+				sign = -1;
+			} else if (STATUS_PAID.equals(oldStatus) && STATUS_SHIPPING.equals(newStatus)) {
+				sign = 1;
+			} else {
+				return;
+			}
+			Object quantity = newRow.getObject("quantity");
+			if (quantity != null) {
+				update(connection, "UPDATE products SET quantity = quantity + ? WHERE productId = ?",
+						sign * ((Integer) quantity), newRow.getObject("productId"));
+			}
+		}
+	}
+
+	// restoreProductQuantityAfterDelete: AFTER DELETE ON orderdetails
+	public static class RestoreProductQuantityAfterDelete extends TriggerAdapter {
+
+		@Override
+		public void fire(Connection connection, ResultSet oldRow, ResultSet newRow) throws SQLException {
+			update(connection, "UPDATE products SET quantity = quantity + ? WHERE productId = ?",
+					oldRow.getObject("quantity"), oldRow.getObject("productId"));
+		}
+	}
+
+	private static void update(Connection connection, String sql, Object... parameters) throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+			for (int i = 0; i < parameters.length; i++) {
+				ps.setObject(i + 1, parameters[i]);
+			}
+			ps.executeUpdate();
+		}
+	}
+
+}
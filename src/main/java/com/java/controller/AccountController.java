@@ -31,12 +31,8 @@ public class AccountController extends CommonController {
 		model.addAttribute("customer", new Customer());
 		Customer customer = customersRepository.FindByEmail(principal.getName()).get();
 		model.addAttribute("customer", customer);
-		System.out.println(customer.getCustomerId()+" "+principal.getName());
 
 		Collection<BillViewDTO> billViews = billViewRepository.getBillViewByCustomerId(customer.getCustomerId());
-		for (BillViewDTO billView : billViews) {
-			System.out.println(billView.toString());
-		}
 		model.addAttribute("billViews", billViews);
 
 		return "site/account";
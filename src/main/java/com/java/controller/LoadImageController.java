@@ -9,6 +9,8 @@ import java.io.InputStream;
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,6 +19,8 @@ import org.springframework.web.bind.annotation.ResponseBody;
 
 @Controller
 public class LoadImageController {
+
+	private static final Logger log = LoggerFactory.getLogger(LoadImageController.class);
 	
 	@Value("${upload.path}")
 	private String pathUploadImage;
@@ -27,15 +31,11 @@ public class LoadImageController {
 			throws IOException {
 		response.setContentType("image/jpeg");
 		File file = new File(pathUploadImage + File.separatorChar + imageName);
-		InputStream inputStream = null;
 		if (file.exists()) {
-			try {
-				inputStream = new FileInputStream(file);
-			} catch (FileNotFoundException e) {
-				e.printStackTrace();
-			}
-			if (inputStream != null) {
+			try (InputStream inputStream = new FileInputStream(file)) {
 				return IOUtils.toByteArray(inputStream);
+			} catch (FileNotFoundException e) {
+				log.warn("Image {} disappeared before it could be read", imageName);
 			}
 		}
 		return null;
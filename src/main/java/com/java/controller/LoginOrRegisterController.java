@@ -1,13 +1,13 @@
 package com.java.controller;
 
 import java.security.Principal;
-import java.util.List;
 import java.util.Optional;
 
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.ui.ModelMap;
@@ -19,20 +19,20 @@ import org.springframework.web.bind.annotation.RequestParam;
 
 import com.java.entity.Customer;
 import com.java.entity.Role;
-import com.java.repository.CustomersRepository;
-import com.java.service.SendMailService;
+import com.java.service.NotificationService;
+import com.java.service.RegistrationService;
 
 @Controller
 public class LoginOrRegisterController extends CommonController {
 
 	@Autowired
-	CustomersRepository customersRepository;
+	NotificationService notificationService;
 
 	@Autowired
-	SendMailService sendMailService;
+	RegistrationService registrationService;
 
 	@Autowired
-	BCryptPasswordEncoder bCryptPasswordEncoder;
+	PasswordEncoder passwordEncoder;
 
 	@GetMapping(value = "/login")
 	public String loginOrRegister(Model model, @RequestParam("error") Optional<String> error) {
@@ -71,45 +71,36 @@ public class LoginOrRegisterController extends CommonController {
 
 		customer.setEnabled(true);
 		customer.setRoleId(0); // Integer: 0 = ROLE_USER, 1 = ROLE_ADMIN
-		customer.setPassword(bCryptPasswordEncoder.encode(customer.getPassword()));
-
-		Customer c = customersRepository.save(customer);
-		sendMailService.sendMail(c.getEmail(), "Vegana Store", "<h3>Hi:" + c.getFullname()
-				+ " !</h3> Chúc mừng bạn đã đăng ký tài khoản thành công tại Vegana-Store!\r\n ");
+		customer.setPassword(passwordEncoder.encode(customer.getPassword()));
+
+		try {
+			registrationService.register(customer);
+		} catch (DataIntegrityViolationException e) {
+			// đăng kí cùng lúc với cùng email / ID: unique index chặn lại
+			model.addAttribute("error", registrationService.isEmailAvailable(customer.getEmail())
+					? "Đăng kí thất bại, ID Login này đã được sử dụng!"
+					: "Đăng kí thất bại, Email này đã được sử dụng!");
+			return "site/loginOrRegister";
+		}
+		// Mail chào mừng được gửi bất đồng bộ, không chờ SMTP trên luồng request
+		notificationService.registrationSucceeded(customer);
 		Role role = new Role();
 		role.setRoleName("ROLE_USER");
 		///role.setCustomer(customer);
-		if (null != c) {
-			model.addAttribute("message", "Đăng kí thành công, xin mời đăng nhập!");
-			model.addAttribute("customer", customer);
-		} else {
-			model.addAttribute("error", "failure");
-			model.addAttribute("customer", customer);
-		}
+		model.addAttribute("message", "Đăng kí thành công, xin mời đăng nhập!");
+		model.addAttribute("customer", customer);
 
 		return "site/loginOrRegister";
 	}
 
 	// check email
 	public boolean checkEmail(String email) {
-		List<Customer> list = customersRepository.findAll();
-		for (Customer c : list) {
-			if (c.getEmail().equalsIgnoreCase(email)) {
-				return false;
-			}
-		}
-		return true;
+		return registrationService.isEmailAvailable(email);
 	}
 
 	// check ID Login
 	public boolean checkIdlogin(String customerId) {
-		List<Customer> listC = customersRepository.findAll();
-		for (Customer c : listC) {
-			if (c.getCustomerId().equalsIgnoreCase(customerId)) {
-				return false;
-			}
-		}
-		return true;
+		return registrationService.isCustomerIdAvailable(customerId);
 	}
 
 }
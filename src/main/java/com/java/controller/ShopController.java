@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -25,6 +26,9 @@ public class ShopController extends CommonController {
 	@Autowired
 	ProductRepository productRepository;
 
+	// chỉ true khi CSDL đã có index FULLTEXT ft_products_name (db/pending V2_1); false thì luôn dùng LIKE
+	@Value("${vegana.search.fulltext:false}")
+	private boolean fullTextSearch;
 
 	// get products
 	@GetMapping(value = "/products")
@@ -89,7 +93,10 @@ public class ShopController extends CommonController {
 	public String showSearch(Model model, Pageable pageable, @RequestParam("keyword") String keyword,
 			@RequestParam("size") Optional<Integer> size, @RequestParam("page") Optional<Integer> page) {
 
-		List<Product> products = productRepository.searchProduct(keyword);
+		// index FULLTEXT chia tên thành các cụm 2 ký tự: từ khóa ngắn hơn vẫn dùng LIKE
+		String phrase = keyword.strip().replace("\"", " ");
+		List<Product> products = !fullTextSearch || phrase.length() < 2 ? productRepository.searchProduct(keyword)
+				: productRepository.searchProductFullText("\"" + phrase + "\"");
 
 		model.addAttribute("productList", products);
 		return "site/shop";
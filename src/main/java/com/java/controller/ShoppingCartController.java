@@ -2,12 +2,17 @@ package com.java.controller;
 
 import com.java.entity.*;
 import com.java.repository.*;
+import com.java.service.CheckoutResult;
+import com.java.service.CheckoutService;
+import com.java.service.CustomerLockService;
+import com.java.service.OutOfStockException;
+import com.java.service.ReadYourWrites;
 import com.java.service.SendMailService;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.propertyeditors.CustomDateEditor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.WebDataBinder;
@@ -15,12 +20,12 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
-import jakarta.transaction.Transactional;
 import java.security.Principal;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
 
 @Controller
 public class ShoppingCartController extends CommonController {
@@ -40,9 +45,6 @@ public class ShoppingCartController extends CommonController {
 	@Autowired
 	SendMailService sendMailService;
 
-	@Autowired
-	HttpSession session;
-
 	@Autowired
 	CartRepository cartRepository;
 
@@ -52,7 +54,17 @@ public class ShoppingCartController extends CommonController {
 	@Autowired
 	CartProductViewRepository cartProductViewRepository;
 
-	String CUSTOMER_ID;
+	@Autowired
+	CustomerLockService customerLockService;
+
+	@Autowired
+	CheckoutService checkoutService;
+
+	@Autowired
+	ReadYourWrites readYourWrites;
+
+	// Ngoài SecurityContext, session chỉ giữ cartVersion; giỏ hàng nằm trong bảng carts
+	static final String SESSION_CART_VERSION = "cartVersion";
 
 	public ShoppingCartController(ProductRepository productRepository, OrderRepository orderRepository, OrderDetailRepository orderDetailRepository, CustomersRepository customersRepository, SendMailService sendMailService) {
 		this.productRepository = productRepository;
@@ -71,8 +83,7 @@ public class ShoppingCartController extends CommonController {
 			return "redirect:/login";
 		}
 
-		Customer c = customersRepository.FindByEmail(principal.getName()).get();
-		String customerId = c.getCustomerId();
+		String customerId = customerIdOf(principal);
 
 		// Tải giỏ hàng từ cơ sở dữ liệu
 		Collection<CartProductViewDTO> cartProductViewDTO = cartProductViewRepository.getCartProductViewByCustomerId(customerId);
@@ -85,13 +96,29 @@ public class ShoppingCartController extends CommonController {
 		// Các thông tin khác (nếu cần)/*/
 		// model.addAttribute("totalCartItemWishs", wishListService.getCount());
 		// model.addAttribute("totalCartItems", shoppingCartService.getCount());
-		session = request.getSession();
-		session.setAttribute("customerId", customerId);
-		System.out.println(customerId);
-		CUSTOMER_ID=customerId;
 
 		return "site/shoppingCart";
 	}
+
+	// customerId lấy từ principal (Customer do VeganaService nạp), không cần tra CSDL
+	private String customerIdOf(Principal principal) {
+		if (principal instanceof Authentication authentication
+				&& authentication.getPrincipal() instanceof Customer customer) {
+			return customer.getCustomerId();
+		}
+		return customersRepository.FindByEmail(principal.getName()).get().getCustomerId();
+	}
+
+	// Tăng phiên bản giỏ hàng trong session để biết giỏ đã đổi; trang giỏ hàng kế tiếp đọc trên primary
+	private void cartChanged(HttpServletRequest request, String customerId) {
+		readYourWrites.wrote(customerId);
+		HttpSession session = request.getSession(false);
+		if (session != null) {
+			Long version = (Long) session.getAttribute(SESSION_CART_VERSION);
+			session.setAttribute(SESSION_CART_VERSION, version == null ? 1L : version + 1);
+		}
+	}
+
 	private double tongdonhang(Collection<CartProductViewDTO> cartProductViewDTO)
 	{
 		double thanhtien = 0;
@@ -112,25 +139,12 @@ public class ShoppingCartController extends CommonController {
 		}
 
 		// Đã đăng nhập, tiếp tục thêm sản phẩm vào giỏ hàng
-		Customer c = customersRepository.FindByEmail(principal.getName()).get();
-		String customerId = c.getCustomerId();
-
-
-		Product product = productRepository.findById(productId).orElse(null);
-		session = request.getSession();
+		String customerId = customerIdOf(principal);
 
-		Cart cart = new Cart(customerId, productId, 1, product.getPrice());
-		cartRepository.updateOrInsertIntoCart(customerId, productId);
+		customerLockService.withCustomerLock(customerId,
+				() -> cartRepository.updateOrInsertIntoCart(customerId, productId));
+		cartChanged(request, customerId);
 
-		Cart item = new Cart();
-		BeanUtils.copyProperties(product, item);
-		item.setQuantity(1);
-		item.setProductId(product.getProductId());
-		item.setProductId(productId);
-		item.setCustomerId(customerId);
-
-		session.setAttribute("cart", cart);
-		session.setAttribute("customerId", customerId);
 		return "redirect:" + request.getHeader("Referer");
 	}
 
@@ -138,10 +152,14 @@ public class ShoppingCartController extends CommonController {
 
 
 	@PutMapping(value = "/updateCart")
-	public ResponseEntity<String> updateCart(@RequestBody Map<String, String> payload,HttpServletRequest request) {
+	public ResponseEntity<String> updateCart(@RequestBody Map<String, String> payload,HttpServletRequest request,
+			Principal principal) {
+		if (principal == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not logged in");
+		}
+		String customerId = customerIdOf(principal);
 		String name = payload.get("name");
 		int productId = Integer.parseInt(payload.get("productId"));
-		String customerId = (String) session.getAttribute("customerId");
 		int quantity = Integer.parseInt(payload.get("quantity"));
 		double price = Double.parseDouble(payload.get("price"));
 		double totalPrice = Double.parseDouble(payload.get("totalPrice"));
@@ -158,18 +176,23 @@ public class ShoppingCartController extends CommonController {
 		cartProductViewDTO.setTotalPrice(totalPrice);
 		cartProductViewDTO.setImage(image);
 		cartProductViewDTO.setDiscount(discount);
-		System.out.println(cartProductViewDTO);
 
-		cartRepository.updateCart(cartProductViewDTO);
-		session = request.getSession();
-		session.setAttribute("customerId", customerId);
+		customerLockService.withCustomerLock(customerId, () -> cartRepository.updateCart(cartProductViewDTO));
+		cartChanged(request, customerId);
 		return ResponseEntity.ok("Cart updated");
 	}
 
 	@DeleteMapping("/deleteCartItem/{customerId}/{productId}")
-	public ResponseEntity<?> deleteCartItem(@PathVariable("productId") Integer productId) {
+	public ResponseEntity<?> deleteCartItem(@PathVariable("productId") Integer productId, HttpServletRequest request,
+			Principal principal) {
+		if (principal == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		String customerId = customerIdOf(principal);
 		try {
-			cartRepository.deleteByCustomerIdAndProductId(CUSTOMER_ID, productId);
+			customerLockService.withCustomerLock(customerId,
+					() -> cartRepository.deleteByCustomerIdAndProductId(customerId, productId));
+			cartChanged(request, customerId);
 			return ResponseEntity.ok().build();
 		} catch (Exception e) {
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error while deleting cart item");
@@ -179,13 +202,16 @@ public class ShoppingCartController extends CommonController {
 
 	// show check out
 	@GetMapping(value = "/checkout")
-	public String checkOut(Model model) {
+	public String checkOut(Model model, HttpServletRequest request, Principal principal) {
 
 		Order order = new Order();
 		model.addAttribute("order", order);
 		model.addAttribute("message","");
+		// Khóa chống gửi trùng: submit lại / retry cùng khóa sẽ trả về đơn hàng cũ
+		model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
 		// Tải giỏ hàng từ cơ sở dữ liệu
-		Collection<CartProductViewDTO> cartProductViewDTO = cartProductViewRepository.getCartProductViewByCustomerId(CUSTOMER_ID);
+		Collection<CartProductViewDTO> cartProductViewDTO = cartProductViewRepository.getCartProductViewByCustomerId(
+				customerIdOf(principal));
 		if (cartProductViewDTO == null || cartProductViewDTO.isEmpty()) {
 			// Giỏ hàng không có hàng, hiển thị thông báo và chuyển hướng về trang chủ
 			return "redirect:/"; // Điều hướng về trang chủ
@@ -204,34 +230,29 @@ public class ShoppingCartController extends CommonController {
 
 	// submit checkout
 	@PostMapping(value = "/checkout")
-	@Transactional
-	public String checkedOut(Model model, @ModelAttribute("order") Order order, HttpServletRequest request, Principal principal) {
-		// Bước 1: Tạo đơn đặt hàng từ giỏ hàng
-		session = request.getSession();
-		Collection<CartProductViewDTO> cartProductViewDTO = cartProductViewRepository.getCartProductViewByCustomerId(CUSTOMER_ID);
+	public String checkedOut(Model model, @ModelAttribute("order") Order order, HttpServletRequest request, Principal principal,
+			@RequestParam(value = "idempotencyKey", required = false) String idempotencyKey) {
 		Customer c = customersRepository.FindByEmail(principal.getName()).get();
+		if (idempotencyKey == null) {
+			idempotencyKey = request.getHeader("Idempotency-Key");
+		}
 		//orderRepository.createOrderFromCart(c.getCustomerId(),order.getPhone());
-		order.setTotalPrice(tongdonhang(cartProductViewDTO));
-		order.setOrderDate(null);
-		order.setCustomer(c);
-		orderRepository.save(order);
-		order.getOrderId();
-		// Bước 2: Thêm chi tiết đơn hàng từ giỏ hàng
-		for (CartProductViewDTO cartItem : cartProductViewDTO) {
-			OrderDetail orderDetail = new OrderDetail();
-			orderDetail.setQuantity(cartItem.getQuantity());
-			orderDetail.setOrder(order);
-			orderDetail.setProduct(productRepository.findByIdProduct(cartItem.getProductId()));
-			orderDetail.setTotalPrice(cartItem.getTotalPrice());
-			orderDetail.setPrice(cartItem.getPrice());
-			orderDetail.setStatus("Đang Chờ Xử Lý");
-			orderDetailRepository.save(orderDetail);
+		// Đọc giỏ hàng, tạo đơn và xóa giỏ hàng trong cùng một khóa theo khách hàng
+		CheckoutResult result;
+		try {
+			result = checkoutService.checkout(c, order, idempotencyKey);
+		} catch (OutOfStockException e) {
+			String view = checkOut(model, request, principal);
+			model.addAttribute("message", e.getMessage());
+			return view;
 		}
-		// Bước 3: Xóa giỏ hàng sau khi hoàn tất đặt hàng
-		cartRepository.emptyCart(c.getCustomerId());
-		session.removeAttribute("cartItems");
-		model.addAttribute("orderId", order.getOrderId());
-		model.addAttribute("totalCartItems", cartProductViewDTO.size());
+		if (result == null) {
+			// Giỏ hàng trống
+			return "redirect:/";
+		}
+		cartChanged(request, c.getCustomerId());
+		model.addAttribute("orderId", result.getOrderId());
+		model.addAttribute("totalCartItems", result.getItemCount());
 		return "site/checkout_success";
 	}
 
@@ -244,13 +265,3 @@ public class ShoppingCartController extends CommonController {
 	}
 
 }
-
-/*		sendMailService.sendMail(c.getEmail(), "Vegana Store",
-				"<h3>Hi: " + order.getReceiver() + " !</h3> Bạn có một đơn đặt hàng từ Vegana Store!\r\n <br>"
-						+ "<br>"
-						+ "Ngày đặt hàng : " + "<h4 style=\"color: black;\">"+ order.getOrderDate() + "</h4>"
-						+ "<br>"
-						+ "Tổng số tiền là: "
-						+ "<h4 style=\"color: red;\">$" + order.getTotalPrice() + "</h4>"
-						+ "<br>"
-						+ "Cảm ơn bạn đã mua sắm trong cửa hàng của chúng tôi!\r\n ");*/
\ No newline at end of file
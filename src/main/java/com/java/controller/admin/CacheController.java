@@ -0,0 +1,35 @@
+package com.java.controller.admin;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.java.service.CatalogCacheService;
+
+// Thống kê và xoá cache cấp 2 của danh mục / nhà cung cấp / sản phẩm (chỉ ADMIN, xem /admin/**)
+@Controller
+public class CacheController {
+
+	@Autowired
+	CatalogCacheService catalogCacheService;
+
+	@GetMapping("/admin/cache")
+	public ResponseEntity<Map<String, Object>> statistics() {
+		return ResponseEntity.ok(catalogCacheService.statistics());
+	}
+
+	// không có region: xoá toàn bộ
+	@PostMapping("/admin/cache/evict")
+	public ResponseEntity<Map<String, Object>> evict(@RequestParam(value = "region", required = false) String region) {
+		if (!catalogCacheService.evict(region)) {
+			return ResponseEntity.badRequest().body(Map.of("error", "Unknown cache region: " + region));
+		}
+		return ResponseEntity.ok(catalogCacheService.statistics());
+	}
+
+}
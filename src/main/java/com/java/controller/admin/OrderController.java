@@ -6,6 +6,8 @@ import java.util.List;
 
 import jakarta.servlet.http.HttpServletResponse;
 
+import com.java.service.CatalogCacheService;
+import com.java.service.InventoryService;
 import com.java.service.OrderDetailService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -36,14 +38,17 @@ public class OrderController extends CommonController{
 	@Autowired
 	OrderDetailRepository orderDetailRepository;
 
+	@Autowired
+	InventoryService inventoryService;
+
+	@Autowired
+	CatalogCacheService catalogCacheService;
+
 	@GetMapping(value = "/admin/orders")
 	public String orders(Model model, Principal principal) {
 		
 		List<OrderDetail> orderDetails = orderDetailRepository.findAll();
 		model.addAttribute("orderDetails", orderDetails);
-		for (OrderDetail orderDetail : orderDetails) {
-			//System.out.println(orderDetail.toString()); // In ra thông tin của mỗi đối tượng OrderDetail
-		}
 		return "admin/orders";
 	}
 	
@@ -62,7 +67,13 @@ public class OrderController extends CommonController{
 	@RequestMapping(value = "/editorder", method = RequestMethod.POST)
 	public String editordertr(@ModelAttribute("orderDetail") OrderDetail orderDetail, Model model,
 			RedirectAttributes rs) {
-		OrderDetail orderDetail2 = orderDetailRepository.save(orderDetail);
+		// lưu và ghi sự kiện đổi trạng thái trong một transaction
+		OrderDetail orderDetail2 = orderDetailService.update(orderDetail);
+		// trigger trên orderdetails vừa đổi tồn kho, đồng bộ lại bộ đếm trong bộ nhớ
+		if (null != orderDetail2 && null != orderDetail2.getProduct()) {
+			inventoryService.refresh(orderDetail2.getProduct().getProductId());
+			catalogCacheService.evictProduct(orderDetail2.getProduct().getProductId());
+		}
 		if (null != orderDetail2) {
 			model.addAttribute("message", "Đã xác nhận !");
 			model.addAttribute("orderDetail", orderDetailRepository.findById(orderDetail2.getOrderDetailId()));
@@ -77,7 +88,13 @@ public class OrderController extends CommonController{
 	// delete category
 	@GetMapping("/deleteOrder/{id}")
 	public String delProduct(@PathVariable("id") Integer id, Model model) {
+		Integer productId = orderDetailRepository.findById(id)
+				.map(orderDetail -> orderDetail.getProduct().getProductId()).orElse(null);
 		orderDetailRepository.deleteById(id);
+		if (productId != null) {
+			inventoryService.refresh(productId);
+			catalogCacheService.evictProduct(productId);
+		}
 		model.addAttribute("message", "Delete successful!");
 		
 		return "redirect:/admin/orders";
@@ -10,6 +10,8 @@ import java.util.List;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import com.java.service.CatalogCacheService;
+import com.java.service.InventoryService;
 import com.java.service.impl.ProductRepositoryImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -51,6 +53,12 @@ public class ProductController extends CommonController{
 	@Autowired
 	ProductRepositoryImpl productRepositoryImpl;
 
+	@Autowired
+	CatalogCacheService catalogCacheService;
+
+	@Autowired
+	InventoryService inventoryService;
+
 	public ProductController(CategoryRepository categoryRepository, SuppliersRepository suppliersRepository,
 			ProductRepository productRepository) {
 		this.productRepository = productRepository;
@@ -61,7 +69,7 @@ public class ProductController extends CommonController{
 	// show list product - table list
 	@ModelAttribute("products")
 	public List<Product> showProduct(Model model) {
-		List<Product> products = productRepository.findAll();
+		List<Product> products = productRepository.findAllWithCategoryAndSupplier();
 		model.addAttribute("products", products);
 
 		return products;
@@ -93,7 +101,12 @@ public class ProductController extends CommonController{
 		product.setImage(file.getOriginalFilename());
 		//Product p = productRepository.save(product);
 		Product p = productRepositoryImpl.addOrUpdateQuantityProduct(product);
-		System.out.println("Them addOrUpdateProduct");
+		// stored procedure ghi thẳng vào bảng products, Hibernate không biết
+		catalogCacheService.evictProducts();
+		// số lượng trong kho đổi: cập nhật bộ đếm đặt hàng ngay, không chờ lần reconcile sau
+		for (Integer productId : productRepositoryImpl.findIdsByName(product.getName())) {
+			inventoryService.refresh(productId);
+		}
 		if (null != p) {
 			model.addAttribute("message", "Update success");
 			model.addAttribute("product", product);
@@ -136,6 +149,7 @@ public class ProductController extends CommonController{
 	@GetMapping("/deleteProduct/{id}")
 	public String delProduct(@PathVariable("id") Integer id, Model model) {
 		productRepository.deleteById(id);
+		inventoryService.refresh(id);
 		model.addAttribute("message", "Delete successful!");
 
 		return "redirect:/admin/products";
@@ -0,0 +1,27 @@
+package com.java.entity;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.java.service.UserDetailsCache;
+
+// Hibernate lấy listener từ Spring (SpringBeanContainer trong PersistenceJPAConfig)
+@Component
+public class CustomerCacheListener {
+
+	@Autowired
+	@Lazy
+	UserDetailsCache userDetailsCache;
+
+	// đổi mật khẩu, role, enabled... thì lần đăng nhập sau phải đọc lại từ CSDL
+	@PostUpdate
+	@PostRemove
+	public void evict(Customer customer) {
+		userDetailsCache.evict(customer.getCustomerId());
+	}
+
+}
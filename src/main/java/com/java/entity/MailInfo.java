@@ -1,5 +1,7 @@
 package com.java.entity;
 
+import java.util.Map;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,6 +16,10 @@ public class MailInfo {
 	String subject;
 	String body;
 	String attachments;
+	// Nội dung dựng từ templates/mail/<template>.html trên worker gửi mail (body bỏ trống)
+	String template;
+	String locale;
+	Map<String, Object> variables;
 
 	public MailInfo(String to, String subject, String body) {
 		this.from = "Vegana Store <poly@fpt.edu.vn>";
@@ -22,4 +28,11 @@ public class MailInfo {
 		this.body = body;
 	}
 
+	public MailInfo(String to, String subject, String template, String locale, Map<String, Object> variables) {
+		this(to, subject, null);
+		this.template = template;
+		this.locale = locale;
+		this.variables = variables;
+	}
+
 }
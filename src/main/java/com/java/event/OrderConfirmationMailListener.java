@@ -0,0 +1,32 @@
+package com.java.event;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.java.entity.Order;
+import com.java.repository.OrderRepository;
+import com.java.service.NotificationService;
+
+// Gửi mail xác nhận đơn hàng sau khi checkout đã commit
+@Component
+public class OrderConfirmationMailListener implements OrderEventListener {
+
+	@Autowired
+	OrderRepository orderRepository;
+
+	@Autowired
+	NotificationService notificationService;
+
+	@Override
+	public void onEvent(OrderEvent event) {
+		if (event.getType() != OrderEvent.Type.ORDER_PLACED) {
+			return;
+		}
+		Order order = orderRepository.findById(event.getOrderId()).orElse(null);
+		if (order == null || order.getCustomer() == null) {
+			return;
+		}
+		notificationService.orderPlaced(order);
+	}
+
+}
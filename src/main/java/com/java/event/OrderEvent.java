@@ -0,0 +1,34 @@
+package com.java.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderEvent {
+
+	public enum Type {
+		ORDER_PLACED, ORDER_STATUS_CHANGED
+	}
+
+	private long eventId;
+	private Type type;
+	private int orderId;
+	private String customerId;
+	// chỉ dùng cho ORDER_STATUS_CHANGED
+	private Integer orderDetailId;
+	private String oldStatus;
+	private String newStatus;
+
+	public static OrderEvent orderPlaced(int orderId, String customerId) {
+		return new OrderEvent(0, Type.ORDER_PLACED, orderId, customerId, null, null, null);
+	}
+
+	public static OrderEvent orderStatusChanged(int orderId, String customerId, int orderDetailId, String oldStatus,
+			String newStatus) {
+		return new OrderEvent(0, Type.ORDER_STATUS_CHANGED, orderId, customerId, orderDetailId, oldStatus, newStatus);
+	}
+
+}
@@ -0,0 +1,14 @@
+package com.java.event;
+
+/**
+ * Asynchronous subscriber of order events.
+ *
+ * Called on an event worker thread after the order transaction committed.
+ * Delivery is at-least-once: an event is retried until every listener
+ * returns normally, so implementations must tolerate duplicates.
+ */
+public interface OrderEventListener {
+
+	void onEvent(OrderEvent event) throws Exception;
+
+}
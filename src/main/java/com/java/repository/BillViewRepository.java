@@ -3,10 +3,13 @@ package com.java.repository;
 import com.java.entity.BillViewDTO;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+// chỉ đọc view: chạy trên replica khi có (xem ReplicaRoutingDataSource)
 @Repository
+@Transactional(readOnly = true)
 public class BillViewRepository {
 
     private final JdbcTemplate jdbcTemplate;
@@ -3,10 +3,13 @@ package com.java.repository;
 import com.java.entity.CartProductViewDTO;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.List;
+// chỉ đọc view: chạy trên replica khi có; khách vừa đổi giỏ hàng thì đọc trên primary (ReadYourWrites)
 @Repository
+@Transactional(readOnly = true)
 public class CartProductViewRepository {
     private final JdbcTemplate jdbcTemplate;
 
@@ -5,13 +5,13 @@ import com.java.entity.CartProductViewDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.jpa.repository.query.Procedure;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import jakarta.transaction.Transactional;
 import java.util.List;
 @Repository
+@Transactional(readOnly = true)
 public interface CartRepository extends JpaRepository<Cart, Integer> {
 
     @Query("SELECT c FROM Cart c WHERE c.customerId = :customerId")
@@ -30,6 +30,10 @@ public interface CartRepository extends JpaRepository<Cart, Integer> {
     @Query(value = "DELETE FROM carts WHERE customerId = :customerId", nativeQuery = true)
     void emptyCart(@Param("customerId") String customerId);
 
-    @Procedure(procedureName = "UpdateOrInsertIntoCart")
+    // CALL bằng executeUpdate thay vì @Procedure: trên H2 (profile h2) CALL luôn trả về một result set
+    // và @Procedure khi đó đòi một transaction bao ngoài repository
+    @Modifying
+    @Transactional
+    @Query(value = "CALL UpdateOrInsertIntoCart(?1, ?2)", nativeQuery = true)
     void updateOrInsertIntoCart(String customer, int product);
 }
@@ -0,0 +1,36 @@
+package com.java.repository;
+
+import com.java.service.CheckoutResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public class CheckoutRequestRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CheckoutRequestRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public CheckoutResult findByRequestKey(String requestKey) {
+        String sql = "SELECT orderId, itemCount FROM checkout_requests WHERE requestKey = ?";
+        List<CheckoutResult> results = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new CheckoutResult(rs.getInt("orderId"), rs.getInt("itemCount"), true), requestKey);
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    // requestKey là khóa chính: một request lặp lại trong cùng lúc sẽ vi phạm khóa và rollback cả đơn hàng
+    public void insert(String requestKey, String customerId, int orderId, int itemCount) {
+        String sql = "INSERT INTO checkout_requests (requestKey, customerId, orderId, itemCount, createdAt) VALUES (?, ?, ?, ?, ?)";
+        jdbcTemplate.update(sql, requestKey, customerId, orderId, itemCount, new Date());
+    }
+
+    public int deleteOlderThan(Date createdBefore) {
+        String sql = "DELETE FROM checkout_requests WHERE createdAt < ?";
+        return jdbcTemplate.update(sql, createdBefore);
+    }
+}
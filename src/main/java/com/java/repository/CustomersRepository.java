@@ -3,20 +3,43 @@ package com.java.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.java.entity.Customer;
 
 @Repository
+@Transactional(readOnly = true)
 public interface CustomersRepository extends JpaRepository<Customer, Integer>{
 	
+	// đăng nhập ngay sau khi đăng ký: đọc trên primary, replica có thể chưa có tài khoản mới
+	@Transactional
 	@Query(value = "select * from customers where customerId = ?", nativeQuery = true)
     public Customer findCustomersLogin (String customerId);
 	
 	@Query(value = "select * from customers where email = ?", nativeQuery = true)
 	Optional<Customer> FindByEmail(String email);
 
-	
+	// Cột dùng collation utf8mb4_general_ci nên so sánh không phân biệt hoa thường mà vẫn dùng được index
+	@Query(value = "select count(*) from customers where email = ?", nativeQuery = true)
+	long countByEmail(String email);
+
+	@Query(value = "select count(*) from customers where customerId = ?", nativeQuery = true)
+	long countByCustomerId(String customerId);
+
+	// INSERT thật sự: save() sẽ merge (ghi đè) nếu customerId đã tồn tại
+	@Modifying
+	@Transactional
+	@Query(value = "insert into customers (customerId, email, enabled, fullname, password, photo, roleId) "
+			+ "values (?1, ?2, ?3, ?4, ?5, ?6, ?7)", nativeQuery = true)
+	int insertCustomer(String customerId, String email, Boolean enabled, String fullname, String password,
+			String photo, Integer roleId);
+
+	@Modifying
+	@Transactional
+	@Query(value = "update customers set password = ?2 where customerId = ?1", nativeQuery = true)
+	int updatePassword(String customerId, String password);
 
 }
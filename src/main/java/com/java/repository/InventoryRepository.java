@@ -0,0 +1,39 @@
+package com.java.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class InventoryRepository {
+
+    // Tồn kho khả dụng = số lượng trong products trừ các chi tiết đơn hàng đang chờ xử lý
+    // (trigger updateProductQuantityAfterStatusChange chỉ trừ kho khi đơn đã thanh toán)
+    private static final String AVAILABLE_SQL = "SELECT p.productId, "
+            + "COALESCE(p.quantity, 0) - COALESCE(SUM(CASE WHEN od.status = ? THEN od.quantity ELSE 0 END), 0) AS available "
+            + "FROM products p LEFT JOIN orderdetails od ON od.productId = p.productId ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Map<Integer, Integer> getAvailableQuantities(String pendingStatus) {
+        String sql = AVAILABLE_SQL + "GROUP BY p.productId, p.quantity";
+        Map<Integer, Integer> available = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            available.put(rs.getInt("productId"), rs.getInt("available"));
+        }, pendingStatus);
+        return available;
+    }
+
+    public Integer getAvailableQuantity(int productId, String pendingStatus) {
+        String sql = AVAILABLE_SQL + "WHERE p.productId = ? GROUP BY p.productId, p.quantity";
+        List<Integer> rows = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt("available"), pendingStatus, productId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
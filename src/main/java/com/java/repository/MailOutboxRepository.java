@@ -0,0 +1,162 @@
+package com.java.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.entity.MailInfo;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+// Hàng đợi mail lưu trong CSDL: không mất mail khi khởi động lại, gửi lỗi thì thử lại sau
+@Repository
+public class MailOutboxRepository {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_DEAD = "DEAD";
+
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {
+    };
+
+    private final RowMapper<PendingMail> rowMapper = (rs, rowNum) -> {
+        MailInfo mail = new MailInfo();
+        mail.setFrom(rs.getString("fromAddress"));
+        mail.setTo(rs.getString("toAddress"));
+        mail.setSubject(rs.getString("subject"));
+        mail.setBody(rs.getString("body"));
+        mail.setAttachments(rs.getString("attachments"));
+        mail.setTemplate(rs.getString("template"));
+        mail.setLocale(rs.getString("locale"));
+        mail.setVariables(readVariables(rs.getString("variables")));
+        return new PendingMail(rs.getLong("mailId"), rs.getInt("attempts"), mail);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    public MailOutboxRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void insert(MailInfo mail) {
+        String sql = "INSERT INTO mail_outbox (fromAddress, toAddress, subject, body, attachments, template, locale, variables, "
+                + "status, attempts, nextAttemptAt, createdAt) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update(sql, mail.getFrom(), mail.getTo(), mail.getSubject(), mail.getBody(), mail.getAttachments(),
+                mail.getTemplate(), mail.getLocale(), writeVariables(mail.getVariables()), STATUS_PENDING, now, now);
+    }
+
+    // Nhận một lô mail đến hạn gửi; claimToken phân biệt lô của từng worker / node
+    public List<PendingMail> claim(String claimToken, int limit) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        String claimSql = "UPDATE mail_outbox SET status = ?, claimToken = ?, claimedAt = ? "
+                + "WHERE status = ? AND nextAttemptAt <= ? ORDER BY mailId LIMIT ?";
+        int claimed = jdbcTemplate.update(claimSql, STATUS_SENDING, claimToken, now, STATUS_PENDING, now, limit);
+        if (claimed == 0) {
+            return List.of();
+        }
+        String sql = "SELECT * FROM mail_outbox WHERE claimToken = ? AND status = ? ORDER BY mailId";
+        return jdbcTemplate.query(sql, rowMapper, claimToken, STATUS_SENDING);
+    }
+
+    public void markSent(List<Long> mailIds) {
+        String sql = "UPDATE mail_outbox SET status = ?, sentAt = ?, claimToken = NULL WHERE mailId = ?";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(sql, mailIds, mailIds.size(), (ps, mailId) -> {
+            ps.setString(1, STATUS_SENT);
+            ps.setTimestamp(2, now);
+            ps.setLong(3, mailId);
+        });
+    }
+
+    public void reschedule(long mailId, Date nextAttemptAt, String error) {
+        String sql = "UPDATE mail_outbox SET status = ?, attempts = attempts + 1, nextAttemptAt = ?, lastError = ?, claimToken = NULL "
+                + "WHERE mailId = ?";
+        jdbcTemplate.update(sql, STATUS_PENDING, nextAttemptAt, truncate(error), mailId);
+    }
+
+    public void markDead(long mailId, String error) {
+        String sql = "UPDATE mail_outbox SET status = ?, attempts = attempts + 1, lastError = ?, claimToken = NULL WHERE mailId = ?";
+        jdbcTemplate.update(sql, STATUS_DEAD, truncate(error), mailId);
+    }
+
+    // Lô bị bỏ dở khi node dừng giữa chừng
+    public int releaseStaleClaims(Date claimedBefore) {
+        String sql = "UPDATE mail_outbox SET status = ?, claimToken = NULL WHERE status = ? AND claimedAt < ?";
+        return jdbcTemplate.update(sql, STATUS_PENDING, STATUS_SENDING, claimedBefore);
+    }
+
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mail_outbox WHERE status = ?", Long.class,
+                STATUS_PENDING);
+        return count == null ? 0 : count;
+    }
+
+    public int deleteSentOlderThan(Date sentBefore) {
+        String sql = "DELETE FROM mail_outbox WHERE status = ? AND sentAt < ?";
+        return jdbcTemplate.update(sql, STATUS_SENT, sentBefore);
+    }
+
+    private String writeVariables(Map<String, Object> variables) {
+        if (variables == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Mail template variables are not serializable", e);
+        }
+    }
+
+    private Map<String, Object> readVariables(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, VARIABLES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt mail template variables: " + json, e);
+        }
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    public static class PendingMail {
+
+        private final long mailId;
+        private final int attempts;
+        private final MailInfo mail;
+
+        public PendingMail(long mailId, int attempts, MailInfo mail) {
+            this.mailId = mailId;
+            this.attempts = attempts;
+            this.mail = mail;
+        }
+
+        public long getMailId() {
+            return mailId;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public MailInfo getMail() {
+            return mail;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.java.repository;
+
+import com.java.entity.OrderDetail;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class OrderDetailBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    public OrderDetailBatchRepository(JdbcTemplate jdbcTemplate, @Value("${vegana.jdbc.batch-size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    // Chèn tất cả chi tiết đơn hàng bằng JDBC batch, mỗi batch tối đa vegana.jdbc.batch-size dòng.
+    // orderDetailId là IDENTITY nên Hibernate không batch được, ở đây ghi thẳng bằng JDBC.
+    public void insertAll(List<OrderDetail> orderDetails) {
+        String sql = "INSERT INTO orderdetails (price, quantity, status, total_price, orderId, productId) VALUES (?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, orderDetails, batchSize, (ps, orderDetail) -> {
+            ps.setObject(1, orderDetail.getPrice());
+            ps.setObject(2, orderDetail.getQuantity());
+            ps.setString(3, orderDetail.getStatus());
+            ps.setDouble(4, orderDetail.getTotalPrice());
+            ps.setInt(5, orderDetail.getOrder().getOrderId());
+            ps.setInt(6, orderDetail.getProduct().getProductId());
+        });
+    }
+}
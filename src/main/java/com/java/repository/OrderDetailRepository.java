@@ -2,14 +2,31 @@ package com.java.repository;
 
 import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.java.entity.OrderDetail;
 
+import jakarta.persistence.QueryHint;
+
+// chỉ đọc (thống kê, danh sách đơn hàng): readOnly để chạy trên replica khi có; save / delete
+// kế thừa transaction ghi của SimpleJpaRepository
 @Repository
+@Transactional(readOnly = true)
 public interface OrderDetailRepository extends JpaRepository<OrderDetail, Integer>{
+
+	// trang danh sách đơn hàng chỉ hiển thị: entity read-only, không giữ snapshot để dirty-check.
+	// Đơn hàng, khách hàng và sản phẩm (kèm danh mục, nhà cung cấp) nạp cùng một câu JOIN,
+	// không phải một SELECT cho mỗi đơn / sản phẩm khác nhau (N+1)
+	@Override
+	@EntityGraph(attributePaths = { "order", "order.customer", "product", "product.category", "product.supplier" })
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	List<OrderDetail> findAll();
 	
 	@Query(value = "select * from orderdetails where orderId = ?", nativeQuery = true)
 	List<OrderDetail> findByOrderId(int id);
@@ -56,7 +73,8 @@ public interface OrderDetailRepository extends JpaRepository<OrderDetail, Intege
     public List<Object[]> repoWhereSuppliers();
     
     // Thống kê sản phẩm theo năm // theo các năm
-    @Query(value = "Select YEAR(od.orderDate) ,\r\n"
+    // orderYear / orderMonth / orderQuarter là cột sinh ra từ orderDate, có index (migration V2)
+    @Query(value = "Select od.orderYear ,\r\n"
     		+ "SUM(o.quantity) as quantity ,\r\n"
     		+ "SUM(o.quantity * o.total_price) as sum,\r\n"
     		+ "AVG(o.total_price) as avg  ,\r\n"
@@ -64,11 +82,11 @@ public interface OrderDetailRepository extends JpaRepository<OrderDetail, Intege
     		+ "max(o.total_price) as max \r\n"
     		+ "FROM orderdetails o\r\n"
     		+ "INNER JOIN orders od ON o.orderId =od.orderId\r\n"
-    		+ "GROUP BY YEAR(od.orderDate);", nativeQuery = true)
+    		+ "GROUP BY od.orderYear;", nativeQuery = true)
     public List<Object[]> repoWhereYear();
     
     // Thống kê sản phẩm theo tháng // theo các Tháng
-    @Query(value = "Select month(od.orderDate) ,\r\n"
+    @Query(value = "Select od.orderMonth ,\r\n"
     		+ "SUM(o.quantity) as quantity ,    \r\n"
     		+ "SUM(o.quantity * o.total_price) as sum,\r\n"
     		+ "AVG(o.total_price) as avg  ,\r\n"
@@ -76,12 +94,12 @@ public interface OrderDetailRepository extends JpaRepository<OrderDetail, Intege
     		+ "max(o.total_price) as max\r\n"
     		+ "FROM orderdetails o\r\n"
     		+ "INNER JOIN orders od ON o.orderId =od.orderId\r\n"
-    		+ "GROUP BY month(od.orderDate);", nativeQuery = true)
+    		+ "GROUP BY od.orderMonth;", nativeQuery = true)
 
     public List<Object[]> repoWhereMonth();
     
     // Thống kê sản phẩm theo quý // theo các quý
-    @Query(value = "Select QUARTER(od.orderDate),\r\n"
+    @Query(value = "Select od.orderQuarter,\r\n"
     		+ "SUM(o.quantity) as quantity , \r\n"
     		+ "SUM(o.quantity * o.total_price) as sum,\r\n"
     		+ "AVG(o.total_price) as avg, \r\n"
@@ -89,7 +107,7 @@ public interface OrderDetailRepository extends JpaRepository<OrderDetail, Intege
     		+ "max(o.total_price) as max\r\n"
     		+ "FROM orderdetails o\r\n"
     		+ "INNER JOIN orders od ON o.orderId =od.orderId\r\n"
-    		+ "GROUP By QUARTER(od.orderDate);", nativeQuery = true)
+    		+ "GROUP By od.orderQuarter;", nativeQuery = true)
 
     public List<Object[]> repoWhereQUARTER();
     
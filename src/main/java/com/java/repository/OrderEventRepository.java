@@ -0,0 +1,113 @@
+package com.java.repository;
+
+import com.java.event.OrderEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.List;
+
+// Transactional outbox: sự kiện được ghi cùng transaction với đơn hàng, xử lý bất đồng bộ sau commit
+@Repository
+public class OrderEventRepository {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_DEAD = "DEAD";
+
+    private static final RowMapper<OrderEvent> ROW_MAPPER = (rs, rowNum) -> {
+        OrderEvent event = new OrderEvent();
+        event.setEventId(rs.getLong("eventId"));
+        event.setType(OrderEvent.Type.valueOf(rs.getString("eventType")));
+        event.setOrderId(rs.getInt("orderId"));
+        event.setCustomerId(rs.getString("customerId"));
+        event.setOrderDetailId((Integer) rs.getObject("orderDetailId"));
+        event.setOldStatus(rs.getString("oldStatus"));
+        event.setNewStatus(rs.getString("newStatus"));
+        return event;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderEventRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long insert(OrderEvent event) {
+        String sql = "INSERT INTO order_events (eventType, orderId, customerId, orderDetailId, oldStatus, newStatus, status, attempts, createdAt) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, event.getType().name());
+            ps.setInt(2, event.getOrderId());
+            ps.setString(3, event.getCustomerId());
+            if (event.getOrderDetailId() == null) {
+                ps.setNull(4, Types.INTEGER);
+            } else {
+                ps.setInt(4, event.getOrderDetailId());
+            }
+            ps.setString(5, event.getOldStatus());
+            ps.setString(6, event.getNewStatus());
+            ps.setString(7, STATUS_PENDING);
+            ps.setTimestamp(8, new Timestamp(System.currentTimeMillis()));
+            return ps;
+        }, keyHolder);
+        long eventId = keyHolder.getKey().longValue();
+        event.setEventId(eventId);
+        return eventId;
+    }
+
+    // Nhận xử lý một sự kiện; trả về false nếu worker / node khác đã nhận trước
+    public boolean claim(long eventId, Date staleClaimBefore) {
+        String sql = "UPDATE order_events SET status = ?, claimedAt = ?, attempts = attempts + 1 "
+                + "WHERE eventId = ? AND (status = ? OR (status = ? AND claimedAt < ?))";
+        return jdbcTemplate.update(sql, STATUS_PROCESSING, new Date(), eventId, STATUS_PENDING, STATUS_PROCESSING,
+                staleClaimBefore) == 1;
+    }
+
+    public void markDone(long eventId) {
+        String sql = "UPDATE order_events SET status = ?, processedAt = ? WHERE eventId = ?";
+        jdbcTemplate.update(sql, STATUS_DONE, new Date(), eventId);
+    }
+
+    public void markPending(long eventId) {
+        String sql = "UPDATE order_events SET status = ? WHERE eventId = ?";
+        jdbcTemplate.update(sql, STATUS_PENDING, eventId);
+    }
+
+    // Lần thử cuối thất bại: bỏ sự kiện (giữ dòng DEAD để tra cứu); trả về false nếu còn lượt thử
+    public boolean markDeadIfExhausted(long eventId, int maxAttempts) {
+        String sql = "UPDATE order_events SET status = ?, processedAt = ? WHERE eventId = ? AND attempts >= ?";
+        return jdbcTemplate.update(sql, STATUS_DEAD, new Date(), eventId, maxAttempts) == 1;
+    }
+
+    // Sự kiện hết lượt thử nhưng vẫn PENDING / PROCESSING (node dừng giữa lần thử cuối)
+    public int markExhaustedDead(int maxAttempts, Date staleClaimBefore) {
+        String sql = "UPDATE order_events SET status = ?, processedAt = ? WHERE attempts >= ? "
+                + "AND (status = ? OR (status = ? AND claimedAt < ?))";
+        return jdbcTemplate.update(sql, STATUS_DEAD, new Date(), maxAttempts, STATUS_PENDING, STATUS_PROCESSING,
+                staleClaimBefore);
+    }
+
+    // Sự kiện bị bỏ sót (hàng đợi đầy, node khởi động lại, listener lỗi)
+    public List<OrderEvent> findUnprocessed(Date createdBefore, Date staleClaimBefore, int maxAttempts, int limit) {
+        String sql = "SELECT * FROM order_events WHERE createdAt < ? AND attempts < ? "
+                + "AND (status = ? OR (status = ? AND claimedAt < ?)) ORDER BY eventId LIMIT ?";
+        return jdbcTemplate.query(sql, ROW_MAPPER, createdBefore, maxAttempts, STATUS_PENDING, STATUS_PROCESSING,
+                staleClaimBefore, limit);
+    }
+
+    public int deleteDoneOlderThan(Date processedBefore) {
+        String sql = "DELETE FROM order_events WHERE status = ? AND processedAt < ?";
+        return jdbcTemplate.update(sql, STATUS_DONE, processedBefore);
+    }
+}
@@ -3,19 +3,24 @@ package com.java.repository;
 import java.util.Date;
 import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.java.entity.Order;
 
-import jakarta.transaction.Transactional;
+import jakarta.persistence.QueryHint;
 
 @Repository
+@Transactional(readOnly = true)
 public interface OrderRepository extends JpaRepository<Order, Integer>{
 
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
 	@Query(value = "select * from orders where customerId = ?1", nativeQuery = true)
 	List<Order> findByCustomerId(String id);
 
@@ -2,18 +2,39 @@ package com.java.repository;
 
 import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.java.entity.Product;
 
+import jakarta.persistence.QueryHint;
+
+// Mọi truy vấn ở đây chỉ đọc: transaction readOnly (flush MANUAL, chạy trên replica khi có).
+// Các danh sách chỉ hiển thị còn có HINT_READ_ONLY: Hibernate không giữ snapshot để dirty-check
+// (open-in-view tắt nên entity đã nạp không dính vào EntityManager của lần save() sau).
 @Repository
+@Transactional(readOnly = true)
 public interface ProductRepository extends JpaRepository<Product, Integer> {
+
+	// trang shop: danh sách id lấy từ query cache, từng sản phẩm từ cache cấp 2
+	@Override
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Product> findAll();
+
+	// bảng sản phẩm trang admin: danh mục và nhà cung cấp nạp cùng câu JOIN, không SELECT theo từng dòng
+	@EntityGraph(attributePaths = { "category", "supplier" })
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	@Query("SELECT p FROM Product p")
+	List<Product> findAllWithCategoryAndSupplier();
 	
 	// Hiển thị Top 10 sách bán chạy nhất
 	@Query(value = "SELECT p.productId,\r\n"
@@ -24,6 +45,7 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
 			+ "ORDER by SoLuong DESC limit 10;", nativeQuery = true)
 	public List<Object[]> topSellingProduct10();
 
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
 	@Query(value = "select * from products o where productId in :ids", nativeQuery = true)
 	List<Product> findByInventoryIds(@Param("ids") List<Integer> listProductId);
 	
@@ -32,25 +54,36 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     public Product findByIdProduct (int productId);
 
 	// Hiển thị danh sách product mới nhất ở trang chủ LIMIT = 10
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
 	@Query(value = "SELECT * FROM products ORDER BY enteredDate DESC limit 10", nativeQuery = true)
 	public List<Product> listProduct10();
 
 	// List Sản phẩm by danh mục
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
 	@Query(value = "SELECT * FROM products WHERE categoryId = ?", nativeQuery = true)
 	public List<Product> listProductByCategory(Integer categoryId);
 	
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
 	@Query(value = "select * from products where categoryId = ?", nativeQuery = true)
 	Page<Product> findAllProductByCategoryId(Integer id, Pageable pageable);
 
 	// List Sản phẩm by nhà cung cấp
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
 	@Query(value = "SELECT * FROM products where supplierId = ?", nativeQuery = true)
 	public List<Product> listProductBySupplier(Integer supplierId);
 
 	// Search Product
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
 	@Query(value = "SELECT * FROM products WHERE name LIKE %?1%", nativeQuery = true)
 	public List<Product> searchProduct(String name);
+
+	// Search Product qua index FULLTEXT ngram ft_products_name; phrase là cụm từ trong ngoặc kép
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	@Query(value = "SELECT * FROM products WHERE MATCH(name) AGAINST(?1 IN BOOLEAN MODE) ORDER BY productId", nativeQuery = true)
+	public List<Product> searchProductFullText(String phrase);
 	
 	// Gợi ý sản phẩm cùng thể loại
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
 	@Query(value = "SELECT \r\n"
 			+ "*FROM products AS p\r\n"
 			+ "WHERE p.categoryId = ?;" , nativeQuery = true)
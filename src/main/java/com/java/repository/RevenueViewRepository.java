@@ -1,11 +1,18 @@
 package com.java.repository;
 
 import com.java.entity.RevenueViewDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+// chỉ đọc view: chạy trên replica khi có (xem ReplicaRoutingDataSource)
 @Repository
+@Transactional(readOnly = true)
 public class RevenueViewRepository {
+    private static final Logger log = LoggerFactory.getLogger(RevenueViewRepository.class);
+
     private final JdbcTemplate jdbcTemplate;
 
     public RevenueViewRepository(JdbcTemplate jdbcTemplate) {
@@ -20,7 +27,7 @@ public class RevenueViewRepository {
             revenueDTO.setTotal_revenue(totalRevenue);
             return revenueDTO;
         } catch (Exception e) {
-            System.out.println(e.getMessage());
+            log.warn("Could not read revenue_view: {}", e.getMessage());
             return null;
         }
     }
@@ -0,0 +1,36 @@
+package com.java.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Bảo trì bảng session của Spring Session JDBC (migration V3); đọc / ghi session do thư viện làm
+@Repository
+public class SessionStoreRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SessionStoreRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // xoá tối đa limit session hết hạn (quét index EXPIRY_TIME); thuộc tính xoá theo (ON DELETE CASCADE)
+    public int deleteExpired(long now, int limit) {
+        String sql = "DELETE FROM SPRING_SESSION WHERE EXPIRY_TIME < ? LIMIT ?";
+        return jdbcTemplate.update(sql, now, limit);
+    }
+
+    public long countActive(long now) {
+        String sql = "SELECT COUNT(*) FROM SPRING_SESSION WHERE EXPIRY_TIME >= ?";
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, now);
+        return count == null ? 0 : count;
+    }
+
+    // kích thước trung bình (byte, sau nén) của các thuộc tính một session đang hiệu lực giữ trong store
+    public double averageBytesPerSession(long now) {
+        String sql = "SELECT AVG(t.bytes) FROM (SELECT COALESCE(SUM(LENGTH(a.ATTRIBUTE_BYTES)), 0) AS bytes"
+                + " FROM SPRING_SESSION s LEFT JOIN SPRING_SESSION_ATTRIBUTES a ON a.SESSION_PRIMARY_ID = s.PRIMARY_ID"
+                + " WHERE s.EXPIRY_TIME >= ? GROUP BY s.PRIMARY_ID) t";
+        Double average = jdbcTemplate.queryForObject(sql, Double.class, now);
+        return average == null ? 0 : average;
+    }
+}
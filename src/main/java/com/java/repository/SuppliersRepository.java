@@ -1,6 +1,12 @@
 package com.java.repository;
 
+import java.util.List;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.java.entity.Supplier;
@@ -8,4 +14,9 @@ import com.java.entity.Supplier;
 @Repository
 public interface SuppliersRepository extends JpaRepository<Supplier, Integer>{
 
+	// danh sách dùng cho menu trên mọi trang: lấy từ query cache của Hibernate
+	@Override
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+	List<Supplier> findAll();
+
 }
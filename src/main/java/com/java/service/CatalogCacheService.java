@@ -0,0 +1,145 @@
+package com.java.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import com.java.entity.Category;
+import com.java.entity.Product;
+import com.java.entity.Supplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Statistics and eviction for the Hibernate second-level cache of the
+ * catalog (Category, Supplier, Product) and for the query cache.
+ *
+ * Writes made through JPA keep the cache consistent by themselves. Product
+ * rows are also changed by MySQL triggers (order detail status / delete) and
+ * by the AddOrUpdateProduct procedure, which Hibernate never sees; callers
+ * of those paths evict here, and the region TTLs in ehcache.xml bound
+ * anything missed.
+ */
+@Service
+public class CatalogCacheService {
+
+	public static final String QUERY_REGION = "default-query-results-region";
+
+	private static final Class<?>[] CATALOG = { Category.class, Supplier.class, Product.class };
+
+	private final SessionFactory sessionFactory;
+
+	public CatalogCacheService(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		for (Class<?> entity : CATALOG) {
+			registerRegion(meterRegistry, entity.getName());
+		}
+		registerRegion(meterRegistry, QUERY_REGION);
+	}
+
+	// tồn kho của sản phẩm vừa bị trigger thay đổi
+	public void evictProduct(int productId) {
+		sessionFactory.getCache().evictEntityData(Product.class, productId);
+	}
+
+	// stored procedure có thể đã thêm sản phẩm mới: danh sách trong query cache cũng cũ
+	public void evictProducts() {
+		sessionFactory.getCache().evictEntityData(Product.class);
+		sessionFactory.getCache().evictQueryRegions();
+	}
+
+	/**
+	 * @param region a region name from {@link #statistics()}, or null for every region
+	 * @return false when the region is unknown
+	 */
+	public boolean evict(String region) {
+		if (region == null || region.isBlank()) {
+			sessionFactory.getCache().evictAllRegions();
+			return true;
+		}
+		if (QUERY_REGION.equals(region)) {
+			sessionFactory.getCache().evictDefaultQueryRegion();
+			return true;
+		}
+		for (Class<?> entity : CATALOG) {
+			if (entity.getName().equals(region)) {
+				sessionFactory.getCache().evictEntityData(entity);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public Map<String, Object> statistics() {
+		Statistics statistics = sessionFactory.getStatistics();
+		Map<String, Object> regions = new LinkedHashMap<>();
+		for (Class<?> entity : CATALOG) {
+			regions.put(entity.getName(), regionStatistics(region(entity.getName())));
+		}
+		regions.put(QUERY_REGION, regionStatistics(region(QUERY_REGION)));
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+		result.put("regions", regions);
+		result.put("queryCacheHitCount", statistics.getQueryCacheHitCount());
+		result.put("queryCacheMissCount", statistics.getQueryCacheMissCount());
+		result.put("entityLoadCount", statistics.getEntityLoadCount());
+		result.put("queryExecutionCount", statistics.getQueryExecutionCount());
+		return result;
+	}
+
+	private static Map<String, Object> regionStatistics(CacheRegionStatistics region) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		if (region == null) {
+			return values;
+		}
+		long hits = region.getHitCount();
+		long misses = region.getMissCount();
+		values.put("hitCount", hits);
+		values.put("missCount", misses);
+		values.put("putCount", region.getPutCount());
+		values.put("hitRatio", hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+		// Ehcache qua JCache không báo số phần tử (giá trị âm)
+		if (region.getElementCountInMemory() >= 0) {
+			values.put("elementCountInMemory", region.getElementCountInMemory());
+		}
+		return values;
+	}
+
+	private void registerRegion(MeterRegistry meterRegistry, String region) {
+		FunctionCounter.builder("vegana.cache.l2.requests", this, service -> service.count(region, true))
+				.tag("region", region)
+				.tag("result", "hit")
+				.register(meterRegistry);
+		FunctionCounter.builder("vegana.cache.l2.requests", this, service -> service.count(region, false))
+				.tag("region", region)
+				.tag("result", "miss")
+				.register(meterRegistry);
+	}
+
+	private CacheRegionStatistics region(String region) {
+		Statistics statistics = sessionFactory.getStatistics();
+		try {
+			return QUERY_REGION.equals(region) ? statistics.getQueryRegionStatistics(region)
+					: statistics.getDomainDataRegionStatistics(region);
+		} catch (IllegalArgumentException e) {
+			// cache cấp 2 đang tắt: region không tồn tại
+			return null;
+		}
+	}
+
+	private double count(String region, boolean hits) {
+		CacheRegionStatistics statistics = region(region);
+		if (statistics == null) {
+			return 0;
+		}
+		return hits ? statistics.getHitCount() : statistics.getMissCount();
+	}
+
+}
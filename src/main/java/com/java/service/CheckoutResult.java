@@ -0,0 +1,17 @@
+package com.java.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutResult {
+
+	private int orderId;
+	private int itemCount;
+	// true when the order was created by an earlier request with the same key
+	private boolean replayed;
+
+}
@@ -0,0 +1,248 @@
+package com.java.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.java.entity.CartProductViewDTO;
+import com.java.entity.Customer;
+import com.java.entity.Order;
+import com.java.entity.OrderDetail;
+import com.java.event.OrderEvent;
+import com.java.repository.CartProductViewRepository;
+import com.java.repository.CartRepository;
+import com.java.repository.CheckoutRequestRepository;
+import com.java.repository.OrderDetailBatchRepository;
+import com.java.repository.OrderRepository;
+import com.java.repository.ProductRepository;
+
+@Service
+public class CheckoutService {
+
+	public static final String STATUS_PENDING = "Đang Chờ Xử Lý";
+
+	@Autowired
+	CartProductViewRepository cartProductViewRepository;
+
+	@Autowired
+	CartRepository cartRepository;
+
+	@Autowired
+	OrderRepository orderRepository;
+
+	@Autowired
+	OrderDetailBatchRepository orderDetailBatchRepository;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	CustomerLockService customerLockService;
+
+	@Autowired
+	InventoryService inventoryService;
+
+	@Autowired
+	CheckoutRequestRepository checkoutRequestRepository;
+
+	@Autowired
+	OrderEventService orderEventService;
+
+	@Autowired
+	ReadYourWrites readYourWrites;
+
+	@Value("${vegana.checkout.idempotency-ttl-ms:86400000}")
+	private long idempotencyTtlMs;
+
+	@Value("${vegana.checkout.idempotency-cache-size:10000}")
+	private int idempotencyCacheSize;
+
+	private final TransactionTemplate transactionTemplate;
+
+	// requestKey -> kết quả đã trả về, phục vụ replay mà không cần truy vấn CSDL
+	private final Map<String, CachedResult> recentResults = new ConcurrentHashMap<>();
+
+	public CheckoutService(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	// Runs under the customer lock so that cart updates cannot slip in between
+	// reading the cart and emptying it. The lock is taken outside the
+	// transaction and is only released after the commit. Stock is reserved
+	// in memory before the transaction and handed back if it rolls back.
+	//
+	// A request with an idempotency key that was already processed returns the
+	// original order instead of creating a new one. That includes a duplicate
+	// the customer lock did not serialize (vegana.lock.mode=mysql, several
+	// nodes): its checkout_requests insert hits the primary key, the order
+	// rolls back and the winner's order is returned. Returns null when the
+	// cart is empty.
+	public CheckoutResult checkout(Customer customer, Order order, String idempotencyKey) {
+		String requestKey = requestKey(customer, idempotencyKey);
+		return customerLockService.withCustomerLock(customer.getCustomerId(), () -> {
+			CheckoutResult previous = findPrevious(requestKey);
+			if (previous != null) {
+				order.setOrderId(previous.getOrderId());
+				return previous;
+			}
+			Collection<CartProductViewDTO> cartProductViewDTO = cartProductViewRepository
+					.getCartProductViewByCustomerId(customer.getCustomerId());
+			if (cartProductViewDTO.isEmpty()) {
+				return null;
+			}
+			Map<Integer, Integer> quantities = quantitiesByProduct(cartProductViewDTO);
+			inventoryService.reserve(quantities);
+			try {
+				transactionTemplate.executeWithoutResult(status -> {
+					placeOrder(customer, order, cartProductViewDTO);
+					if (requestKey != null) {
+						checkoutRequestRepository.insert(requestKey, customer.getCustomerId(), order.getOrderId(),
+								cartProductViewDTO.size());
+					}
+					// mail xác nhận và các xử lý khác chạy bất đồng bộ sau khi commit
+					orderEventService.publish(OrderEvent.orderPlaced(order.getOrderId(), customer.getCustomerId()));
+				});
+			} catch (DataIntegrityViolationException e) {
+				inventoryService.release(quantities);
+				// cùng requestKey vừa được request khác commit: trả lại đơn của request đó
+				CheckoutResult winner = requestKey == null ? null : checkoutRequestRepository.findByRequestKey(requestKey);
+				if (winner == null) {
+					throw e;
+				}
+				remember(requestKey, winner);
+				order.setOrderId(winner.getOrderId());
+				return winner;
+			} catch (RuntimeException e) {
+				inventoryService.release(quantities);
+				throw e;
+			}
+			inventoryService.confirm(quantities);
+			// đơn vừa đặt phải hiện ngay trong lịch sử đơn hàng dù replica chưa kịp nhận
+			readYourWrites.wrote(customer.getCustomerId());
+			CheckoutResult result = new CheckoutResult(order.getOrderId(), cartProductViewDTO.size(), false);
+			remember(requestKey, result);
+			return result;
+		});
+	}
+
+	@Scheduled(fixedDelayString = "${vegana.checkout.idempotency-cleanup-ms:3600000}")
+	public void purgeExpiredRequestKeys() {
+		long cutoff = System.currentTimeMillis() - idempotencyTtlMs;
+		recentResults.values().removeIf(cached -> cached.createdAt < cutoff);
+		checkoutRequestRepository.deleteOlderThan(new Date(cutoff));
+	}
+
+	private CheckoutResult findPrevious(String requestKey) {
+		if (requestKey == null) {
+			return null;
+		}
+		CachedResult cached = recentResults.get(requestKey);
+		if (cached != null) {
+			return cached.result;
+		}
+		CheckoutResult stored = checkoutRequestRepository.findByRequestKey(requestKey);
+		if (stored != null) {
+			remember(requestKey, stored);
+		}
+		return stored;
+	}
+
+	private void remember(String requestKey, CheckoutResult result) {
+		// the table stays authoritative, the map is only a bounded fast path
+		if (requestKey != null && recentResults.size() < idempotencyCacheSize) {
+			CheckoutResult replay = new CheckoutResult(result.getOrderId(), result.getItemCount(), true);
+			recentResults.put(requestKey, new CachedResult(replay, System.currentTimeMillis()));
+		}
+	}
+
+	// Keys are scoped to the customer so one customer can never replay another's order.
+	// A key too long for checkout_requests.requestKey is stored as its SHA-256.
+	private String requestKey(Customer customer, String idempotencyKey) {
+		if (idempotencyKey == null || idempotencyKey.isBlank()) {
+			return null;
+		}
+		String key = customer.getCustomerId() + ":" + idempotencyKey.trim();
+		return key.length() > 255 ? "sha256:" + sha256(key) : key;
+	}
+
+	private static String sha256(String value) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			// mọi JVM đều phải có SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void placeOrder(Customer customer, Order order, Collection<CartProductViewDTO> cartProductViewDTO) {
+		// Bước 1: Tạo đơn đặt hàng từ giỏ hàng
+		order.setTotalPrice(tongdonhang(cartProductViewDTO));
+		order.setOrderDate(null);
+		order.setCustomer(customer);
+		orderRepository.save(order);
+		// Bước 2: Thêm chi tiết đơn hàng từ giỏ hàng (một JDBC batch cho cả đơn)
+		List<OrderDetail> orderDetails = new ArrayList<>(cartProductViewDTO.size());
+		for (CartProductViewDTO cartItem : cartProductViewDTO) {
+			OrderDetail orderDetail = new OrderDetail();
+			orderDetail.setQuantity(cartItem.getQuantity());
+			orderDetail.setOrder(order);
+			// cart_product_view đã join products, chỉ cần tham chiếu theo id, không cần SELECT
+			orderDetail.setProduct(productRepository.getReferenceById(cartItem.getProductId()));
+			orderDetail.setTotalPrice(cartItem.getTotalPrice());
+			orderDetail.setPrice(cartItem.getPrice());
+			orderDetail.setStatus(STATUS_PENDING);
+			orderDetails.add(orderDetail);
+		}
+		if (!orderDetails.isEmpty()) {
+			orderDetailBatchRepository.insertAll(orderDetails);
+		}
+		// Bước 3: Xóa giỏ hàng sau khi hoàn tất đặt hàng
+		cartRepository.emptyCart(customer.getCustomerId());
+	}
+
+	private Map<Integer, Integer> quantitiesByProduct(Collection<CartProductViewDTO> cartProductViewDTO) {
+		Map<Integer, Integer> quantities = new LinkedHashMap<>();
+		for (CartProductViewDTO cartItem : cartProductViewDTO) {
+			quantities.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+		}
+		return quantities;
+	}
+
+	public double tongdonhang(Collection<CartProductViewDTO> cartProductViewDTO) {
+		double thanhtien = 0;
+		for (CartProductViewDTO cart : cartProductViewDTO) {
+			thanhtien += cart.getTotalPrice();
+		}
+		return thanhtien;
+	}
+
+	private static final class CachedResult {
+
+		final CheckoutResult result;
+
+		final long createdAt;
+
+		CachedResult(CheckoutResult result, long createdAt) {
+			this.result = result;
+			this.createdAt = createdAt;
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+package com.java.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Serializes cart and checkout mutations of one customer.
+ *
+ * Customers are hashed onto a fixed array of locks (stripes), so two
+ * different customers only contend when they share a stripe. In "mysql" mode
+ * the stripe is taken first and a named MySQL lock (GET_LOCK) is held on top
+ * of it, which extends the guarantee across several application nodes.
+ * GET_LOCK connections come from their own small pool (lockDataSource,
+ * vegana.lock.pool-size), never from the pool the checkout transaction uses,
+ * so concurrent checkouts cannot starve each other of connections.
+ */
+@Service
+public class CustomerLockService {
+
+	private static final String MODE_MYSQL = "mysql";
+
+	// only exists in mysql mode
+	@Autowired(required = false)
+	@Qualifier("lockDataSource")
+	DataSource lockDataSource;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${vegana.lock.mode:local}")
+	private String mode;
+
+	@Value("${vegana.lock.stripes:256}")
+	private int stripeCount;
+
+	@Value("${vegana.lock.timeout-ms:5000}")
+	private long timeoutMs;
+
+	private ReentrantLock[] stripes;
+
+	private Timer waitTimer;
+
+	private Counter timeoutCounter;
+
+	@PostConstruct
+	void init() {
+		// round up to a power of two so the stripe index is a simple mask
+		int size = 1;
+		while (size < stripeCount) {
+			size <<= 1;
+		}
+		stripes = new ReentrantLock[size];
+		for (int i = 0; i < size; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+		waitTimer = Timer.builder("vegana.customer.lock.wait")
+				.description("Time spent waiting for a per-customer lock")
+				.tag("mode", mode)
+				.register(meterRegistry);
+		timeoutCounter = Counter.builder("vegana.customer.lock.timeouts")
+				.description("Per-customer lock acquisitions that timed out")
+				.tag("mode", mode)
+				.register(meterRegistry);
+	}
+
+	public void withCustomerLock(String customerId, Runnable action) {
+		withCustomerLock(customerId, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	public <T> T withCustomerLock(String customerId, Supplier<T> action) {
+		ReentrantLock lock = stripeFor(customerId);
+		long start = System.nanoTime();
+		boolean acquired;
+		try {
+			acquired = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CannotAcquireLockException("Interrupted while locking customer " + customerId, e);
+		}
+		if (!acquired) {
+			waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			timeoutCounter.increment();
+			throw new CannotAcquireLockException("Timed out locking customer " + customerId);
+		}
+		try {
+			// re-entrant calls on the same thread already hold the database lock
+			if (!MODE_MYSQL.equalsIgnoreCase(mode) || lock.getHoldCount() > 1) {
+				waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				return action.get();
+			}
+			return withDatabaseLock(customerId, start, action);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private <T> T withDatabaseLock(String customerId, long start, Supplier<T> action) {
+		String name = "vegana_customer_" + customerId;
+		// GET_LOCK belongs to the connection, so the same connection must release it
+		try (Connection connection = lockDataSource.getConnection()) {
+			long remainingMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			if (!getLock(connection, name, Math.max(0, remainingMs))) {
+				waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				timeoutCounter.increment();
+				throw new CannotAcquireLockException("Timed out locking customer " + customerId + " in MySQL");
+			}
+			waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			try {
+				return action.get();
+			} finally {
+				releaseLock(connection, name);
+			}
+		} catch (SQLException e) {
+			throw new CannotAcquireLockException("Could not lock customer " + customerId + " in MySQL", e);
+		}
+	}
+
+	private boolean getLock(Connection connection, String name, long waitMs) throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+			ps.setString(1, name);
+			// GET_LOCK only accepts whole seconds
+			ps.setLong(2, (waitMs + 999) / 1000);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() && rs.getInt(1) == 1;
+			}
+		}
+	}
+
+	private void releaseLock(Connection connection, String name) throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+			ps.setString(1, name);
+			ps.execute();
+		}
+	}
+
+	private ReentrantLock stripeFor(String customerId) {
+		int h = customerId == null ? 0 : customerId.hashCode();
+		h ^= (h >>> 16);
+		return stripes[h & (stripes.length - 1)];
+	}
+
+}
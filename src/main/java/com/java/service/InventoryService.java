@@ -0,0 +1,184 @@
+package com.java.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.java.repository.InventoryRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory stock counters used to reserve products at checkout.
+ *
+ * Each product has its own atomic counter, reservations are plain CAS loops,
+ * so a flash sale on one product never waits on a MySQL row lock. The
+ * database stays the source of truth: counters are rebuilt from it in one
+ * query on a fixed delay, and a single product is refreshed after an admin
+ * changes or deletes one of its order details.
+ */
+@Service
+public class InventoryService {
+
+	private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+	@Autowired
+	InventoryRepository inventoryRepository;
+
+	private final Map<Integer, Stock> stocks = new ConcurrentHashMap<>();
+
+	private final Counter rejections;
+
+	public InventoryService(MeterRegistry meterRegistry) {
+		this.rejections = Counter.builder("vegana.inventory.rejections")
+				.description("Checkouts rejected because a product was out of stock")
+				.register(meterRegistry);
+		meterRegistry.gauge("vegana.inventory.products", stocks, Map::size);
+	}
+
+	/**
+	 * Reserves every line or none of them.
+	 *
+	 * @param quantities quantity to reserve by productId
+	 * @throws OutOfStockException when one of the products does not have enough stock left
+	 */
+	public void reserve(Map<Integer, Integer> quantities) {
+		Map<Integer, Integer> reserved = new LinkedHashMap<>();
+		for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+			int productId = line.getKey();
+			int quantity = line.getValue();
+			if (!stockOf(productId).tryReserve(quantity)) {
+				release(reserved);
+				rejections.increment();
+				throw new OutOfStockException(productId, "Sản phẩm #" + productId + " không đủ số lượng trong kho");
+			}
+			reserved.put(productId, quantity);
+		}
+	}
+
+	// The order is committed: the reservation is now visible in the database as a pending order detail.
+	public void confirm(Map<Integer, Integer> quantities) {
+		quantities.forEach((productId, quantity) -> {
+			Stock stock = stocks.get(productId);
+			if (stock != null) {
+				stock.inFlight.addAndGet(-quantity);
+				stock.version.incrementAndGet();
+			}
+		});
+	}
+
+	// The order was not committed, or it was cancelled: give the stock back.
+	public void release(Map<Integer, Integer> quantities) {
+		quantities.forEach((productId, quantity) -> {
+			Stock stock = stocks.get(productId);
+			if (stock != null) {
+				stock.available.addAndGet(quantity);
+				stock.inFlight.addAndGet(-quantity);
+				stock.version.incrementAndGet();
+			}
+		});
+	}
+
+	public void refresh(int productId) {
+		Stock stock = stocks.get(productId);
+		if (stock == null) {
+			return;
+		}
+		long version = stock.version.get();
+		Integer available = inventoryRepository.getAvailableQuantity(productId, CheckoutService.STATUS_PENDING);
+		stock.reset(available == null ? 0 : available, version);
+	}
+
+	public int available(int productId) {
+		return stockOf(productId).available.get();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${vegana.inventory.reconcile-ms:60000}")
+	public void reconcile() {
+		Map<Integer, Long> versions = new LinkedHashMap<>();
+		stocks.forEach((productId, stock) -> versions.put(productId, stock.version.get()));
+		Map<Integer, Integer> available;
+		try {
+			available = inventoryRepository.getAvailableQuantities(CheckoutService.STATUS_PENDING);
+		} catch (RuntimeException e) {
+			log.warn("Inventory reconcile failed, keeping in-memory counters", e);
+			return;
+		}
+		available.forEach((productId, quantity) -> {
+			Stock stock = stocks.get(productId);
+			if (stock == null) {
+				stocks.putIfAbsent(productId, new Stock(quantity));
+			} else {
+				Long version = versions.get(productId);
+				stock.reset(quantity, version == null ? stock.version.get() : version);
+			}
+		});
+		stocks.keySet().retainAll(available.keySet());
+	}
+
+	private Stock stockOf(int productId) {
+		Stock stock = stocks.get(productId);
+		if (stock == null) {
+			Integer available = inventoryRepository.getAvailableQuantity(productId, CheckoutService.STATUS_PENDING);
+			stock = stocks.computeIfAbsent(productId, id -> new Stock(available == null ? 0 : available));
+		}
+		return stock;
+	}
+
+	private static final class Stock {
+
+		final AtomicInteger available;
+
+		// reserved in memory but not committed yet, so not visible in the database
+		final AtomicInteger inFlight = new AtomicInteger();
+
+		// bumped on every commit or release, a reconcile that raced with one is skipped
+		final AtomicLong version = new AtomicLong();
+
+		Stock(int available) {
+			this.available = new AtomicInteger(available);
+		}
+
+		boolean tryReserve(int quantity) {
+			// counted in flight before it leaves available, so reset() never misses it
+			inFlight.addAndGet(quantity);
+			for (;;) {
+				int current = available.get();
+				if (current < quantity) {
+					inFlight.addAndGet(-quantity);
+					return false;
+				}
+				if (available.compareAndSet(current, current - quantity)) {
+					return true;
+				}
+			}
+		}
+
+		// A reservation that lands between reading available and the CAS fails the CAS,
+		// so the value is recomputed from inFlight instead of overwriting it.
+		void reset(int databaseAvailable, long expectedVersion) {
+			for (;;) {
+				if (version.get() != expectedVersion) {
+					return;
+				}
+				int current = available.get();
+				if (available.compareAndSet(current, databaseAvailable - inFlight.get())) {
+					return;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.java.service;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+/**
+ * Renders mail bodies from templates/mail/*.html.
+ *
+ * The engine is separate from the web one (but uses SpEL like it) and
+ * always caches parsed templates, so a bulk run parses each template once.
+ * A locale variant is looked up as name_lang.html and falls back to
+ * name.html; the resolved file name is cached per template and language. Every template is
+ * parsed once at startup so the first mail of a run does not pay for it.
+ */
+@Service
+public class MailTemplateService {
+
+	private static final String PREFIX = "templates/mail/";
+
+	private static final String SUFFIX = ".html";
+
+	private final SpringTemplateEngine templateEngine;
+
+	private final Map<String, String> resolvedNames = new ConcurrentHashMap<>();
+
+	@Value("${vegana.mail.default-locale:vi}")
+	private String defaultLocale;
+
+	public MailTemplateService() {
+		ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+		resolver.setPrefix(PREFIX);
+		resolver.setSuffix(SUFFIX);
+		resolver.setTemplateMode(TemplateMode.HTML);
+		resolver.setCharacterEncoding("UTF-8");
+		resolver.setCacheable(true);
+		templateEngine = new SpringTemplateEngine();
+		templateEngine.setTemplateResolver(resolver);
+	}
+
+	public String render(String template, String locale, Map<String, Object> variables) {
+		Locale resolvedLocale = Locale.forLanguageTag(locale == null || locale.isBlank() ? defaultLocale : locale);
+		String name = resolvedNames.computeIfAbsent(template + "|" + resolvedLocale.getLanguage(),
+				key -> resolveName(template, resolvedLocale));
+		Context context = new Context(resolvedLocale);
+		if (variables != null) {
+			context.setVariables(variables);
+		}
+		return templateEngine.process(name, context);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void precompile() throws IOException {
+		Resource[] templates = new PathMatchingResourcePatternResolver()
+				.getResources("classpath:" + PREFIX + "*" + SUFFIX);
+		for (Resource resource : templates) {
+			String filename = resource.getFilename();
+			templateEngine.process(filename.substring(0, filename.length() - SUFFIX.length()), new Context());
+		}
+	}
+
+	public String getDefaultLocale() {
+		return defaultLocale;
+	}
+
+	private String resolveName(String template, Locale locale) {
+		String localized = template + "_" + locale.getLanguage();
+		if (new ClassPathResource(PREFIX + localized + SUFFIX).exists()) {
+			return localized;
+		}
+		return template;
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.java.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.java.entity.Customer;
+import com.java.entity.MailInfo;
+import com.java.entity.Order;
+
+// Mail giao dịch gửi cho khách hàng. Chỉ đưa vào hàng đợi mail_outbox,
+// việc gửi SMTP do các worker của SendMailServiceImpl đảm nhận.
+@Service
+public class NotificationService {
+
+	@Autowired
+	SendMailService sendMailService;
+
+	public void registrationSucceeded(Customer customer) {
+		Map<String, Object> variables = new HashMap<>();
+		variables.put("fullname", customer.getFullname());
+		sendMailService.queue(new MailInfo(customer.getEmail(), "Vegana Store", "registration",
+				LocaleContextHolder.getLocale().getLanguage(), variables));
+	}
+
+	public void orderPlaced(Order order) {
+		Map<String, Object> variables = new HashMap<>();
+		variables.put("receiver", order.getReceiver());
+		variables.put("orderDate", order.getOrderDate() == null ? null : order.getOrderDate().toString());
+		variables.put("totalPrice", order.getTotalPrice());
+		// chưa lưu ngôn ngữ của khách hàng nên dùng vegana.mail.default-locale
+		sendMailService.queue(new MailInfo(order.getCustomer().getEmail(), "Vegana Store", "order-placed", null,
+				variables));
+	}
+
+}
@@ -1,11 +1,16 @@
 package com.java.service;
 
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.java.entity.Order;
+import com.java.entity.OrderDetail;
+import com.java.event.OrderEvent;
+import com.java.repository.OrderDetailRepository;
 import com.java.repository.OrderRepository;
 
 @Service
@@ -14,9 +19,31 @@ public class OrderDetailService {
     @Autowired
     OrderRepository repo;
 
+    @Autowired
+    OrderDetailRepository orderDetailRepository;
+
+    @Autowired
+    OrderEventService orderEventService;
+
     public List<Order> listAll(){
 
         return (List<Order>) repo.findAll();
     }
 
-}
\ No newline at end of file
+    // Đọc trạng thái cũ, lưu và ghi sự kiện trong cùng một transaction ghi: trạng thái cũ đọc trên primary
+    // (không phải replica đang trễ), sự kiện chỉ được gửi sau commit, lỗi giữa chừng thì rollback cả hai
+    @Transactional
+    public OrderDetail update(OrderDetail orderDetail) {
+        String oldStatus = orderDetail.getOrderDetailId() == null ? null
+                : orderDetailRepository.findById(orderDetail.getOrderDetailId()).map(OrderDetail::getStatus).orElse(null);
+        OrderDetail saved = orderDetailRepository.save(orderDetail);
+        if (null != saved.getOrder() && !Objects.equals(oldStatus, saved.getStatus())) {
+            Order order = repo.findById(saved.getOrder().getOrderId()).orElse(null);
+            orderEventService.publish(OrderEvent.orderStatusChanged(saved.getOrder().getOrderId(),
+                    order == null || order.getCustomer() == null ? null : order.getCustomer().getCustomerId(),
+                    saved.getOrderDetailId(), oldStatus, saved.getStatus()));
+        }
+        return saved;
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.java.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.java.event.OrderEvent;
+import com.java.event.OrderEventListener;
+import com.java.repository.OrderEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Publishes order events through a transactional outbox.
+ *
+ * publish() writes the event row in the caller's transaction and hands it to
+ * a bounded worker pool once that transaction commits. When the pool is full,
+ * or the node stops before the event ran, the row stays pending and the
+ * poller picks it up later, so no event is lost and the request thread never
+ * waits on a subscriber.
+ *
+ * An event whose delivery failed vegana.events.max-attempts times is marked
+ * DEAD and counted in vegana.events.dead; the row is kept for inspection and
+ * no longer polled. DONE rows are deleted after vegana.events.retention-days.
+ */
+@Service
+public class OrderEventService {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderEventService.class);
+
+	@Autowired
+	OrderEventRepository orderEventRepository;
+
+	@Autowired(required = false)
+	List<OrderEventListener> listeners = List.of();
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${vegana.events.workers:2}")
+	private int workers;
+
+	@Value("${vegana.events.queue-capacity:1000}")
+	private int queueCapacity;
+
+	@Value("${vegana.events.retry-after-ms:30000}")
+	private long retryAfterMs;
+
+	@Value("${vegana.events.max-attempts:10}")
+	private int maxAttempts;
+
+	@Value("${vegana.events.batch-size:100}")
+	private int batchSize;
+
+	@Value("${vegana.events.retention-days:7}")
+	private int retentionDays;
+
+	private ThreadPoolExecutor executor;
+
+	private Counter failures;
+
+	private Counter dead;
+
+	@PostConstruct
+	void init() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "order-events-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		meterRegistry.gauge("vegana.events.queue.size", executor, e -> e.getQueue().size());
+		failures = Counter.builder("vegana.events.failures")
+				.description("Order event deliveries that threw and will be retried")
+				.register(meterRegistry);
+		dead = Counter.builder("vegana.events.dead")
+				.description("Order events given up after the last attempt")
+				.register(meterRegistry);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	// Must be called inside the transaction that changes the order
+	public void publish(OrderEvent event) {
+		orderEventRepository.insert(event);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					dispatch(event);
+				}
+			});
+		} else {
+			dispatch(event);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${vegana.events.poll-ms:10000}")
+	public void dispatchPending() {
+		long now = System.currentTimeMillis();
+		Date cutoff = new Date(now - retryAfterMs);
+		int exhausted = orderEventRepository.markExhaustedDead(maxAttempts, cutoff);
+		if (exhausted > 0) {
+			dead.increment(exhausted);
+			log.error("{} order events reached {} attempts and were marked DEAD", exhausted, maxAttempts);
+		}
+		List<OrderEvent> pending = orderEventRepository.findUnprocessed(cutoff, cutoff, maxAttempts, batchSize);
+		for (OrderEvent event : pending) {
+			if (!dispatch(event)) {
+				break;
+			}
+		}
+		orderEventRepository.deleteDoneOlderThan(new Date(now - TimeUnit.DAYS.toMillis(retentionDays)));
+	}
+
+	private boolean dispatch(OrderEvent event) {
+		try {
+			executor.execute(() -> deliver(event));
+			return true;
+		} catch (RejectedExecutionException e) {
+			// queue full: the row stays pending for the poller
+			return false;
+		}
+	}
+
+	private void deliver(OrderEvent event) {
+		Date staleClaimBefore = new Date(System.currentTimeMillis() - retryAfterMs);
+		if (!orderEventRepository.claim(event.getEventId(), staleClaimBefore)) {
+			return;
+		}
+		try {
+			for (OrderEventListener listener : listeners) {
+				listener.onEvent(event);
+			}
+			orderEventRepository.markDone(event.getEventId());
+		} catch (Exception e) {
+			failures.increment();
+			if (orderEventRepository.markDeadIfExhausted(event.getEventId(), maxAttempts)) {
+				dead.increment();
+				log.error("Order event {} ({}) failed {} times, giving up", event.getEventId(), event.getType(),
+						maxAttempts, e);
+			} else {
+				log.warn("Order event {} ({}) failed, will retry", event.getEventId(), event.getType(), e);
+				orderEventRepository.markPending(event.getEventId());
+			}
+		}
+	}
+
+}
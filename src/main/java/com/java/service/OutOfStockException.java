@@ -0,0 +1,17 @@
+package com.java.service;
+
+@SuppressWarnings("serial")
+public class OutOfStockException extends RuntimeException {
+
+	private final int productId;
+
+	public OutOfStockException(int productId, String message) {
+		super(message);
+		this.productId = productId;
+	}
+
+	public int getProductId() {
+		return productId;
+	}
+
+}
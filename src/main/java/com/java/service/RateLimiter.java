@@ -0,0 +1,109 @@
+package com.java.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Token buckets keyed by route and client (IP or account).
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be
+ * full again (the GCRA form of a token bucket), so taking a token is one CAS
+ * and no bucket is ever locked. Buckets live in several ConcurrentHashMap
+ * stripes; a bucket that has refilled completely is the same as no bucket,
+ * so idle ones are dropped by a periodic sweep, and a stripe that is still
+ * full after a sweep stops tracking new keys instead of growing.
+ */
+@Service
+public class RateLimiter {
+
+	private static final int STRIPES = 16;
+
+	private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	@SuppressWarnings("unchecked")
+	private final ConcurrentHashMap<String, AtomicLong>[] stripes = new ConcurrentHashMap[STRIPES];
+
+	@Value("${vegana.rate-limit.max-keys:100000}")
+	private int maxKeys;
+
+	public RateLimiter(MeterRegistry meterRegistry) {
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new ConcurrentHashMap<>();
+		}
+		meterRegistry.gauge("vegana.rate-limit.buckets", this, RateLimiter::size);
+	}
+
+	/**
+	 * Takes one token from the bucket of key. The bucket holds perMinute
+	 * tokens and refills at perMinute tokens per minute.
+	 *
+	 * @return 0 when the request may go on, otherwise milliseconds until the next token
+	 */
+	public long tryAcquire(String key, int perMinute) {
+		if (perMinute <= 0) {
+			return 0;
+		}
+		long interval = MINUTE_NANOS / perMinute;
+		long now = System.nanoTime();
+		AtomicLong fullAt = bucket(key, now);
+		if (fullAt == null) {
+			return 0;
+		}
+		while (true) {
+			long current = fullAt.get();
+			long next = Math.max(current, now) + interval;
+			long overflow = next - now - MINUTE_NANOS;
+			if (overflow > 0) {
+				return TimeUnit.NANOSECONDS.toMillis(overflow) + 1;
+			}
+			if (fullAt.compareAndSet(current, next)) {
+				return 0;
+			}
+		}
+	}
+
+	@Scheduled(fixedDelay = 60000)
+	public void evictIdle() {
+		for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+			evictIdle(stripe, System.nanoTime());
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+			size += stripe.size();
+		}
+		return size;
+	}
+
+	private AtomicLong bucket(String key, long now) {
+		ConcurrentHashMap<String, AtomicLong> stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+		AtomicLong fullAt = stripe.get(key);
+		if (fullAt != null) {
+			return fullAt;
+		}
+		int stripeLimit = Math.max(1, maxKeys / STRIPES);
+		if (stripe.size() >= stripeLimit) {
+			evictIdle(stripe, now);
+			if (stripe.size() >= stripeLimit) {
+				// quá nhiều client khác nhau: không theo dõi thêm thay vì làm đầy bộ nhớ
+				return null;
+			}
+		}
+		return stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+	}
+
+	// bucket đã đầy lại hoàn toàn thì bỏ đi cũng như chưa từng có
+	private static void evictIdle(ConcurrentHashMap<String, AtomicLong> stripe, long now) {
+		stripe.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.java.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Remembers which customers wrote something recently.
+ *
+ * For vegana.datasource.replica.sticky-ms after a customer's own checkout or
+ * cart change, their read-only transactions stay on the primary, so the order
+ * they just placed is on "my orders" even when the replica has not caught up.
+ * Other customers keep reading from the replica.
+ *
+ * The window is per node; behind a load balancer without sticky sessions it
+ * should be at least the replication lag the lag guard tolerates.
+ */
+@Service
+public class ReadYourWrites {
+
+	@Value("${vegana.datasource.replica.sticky-ms:5000}")
+	private long stickyMs;
+
+	private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+	public void wrote(String customerId) {
+		if (customerId != null && stickyMs > 0) {
+			stickyUntil.put(customerId, System.currentTimeMillis() + stickyMs);
+		}
+	}
+
+	public boolean isSticky(String customerId) {
+		if (customerId == null) {
+			return false;
+		}
+		Long until = stickyUntil.get(customerId);
+		return until != null && until > System.currentTimeMillis();
+	}
+
+	@Scheduled(fixedDelay = 60000)
+	public void purgeExpired() {
+		long now = System.currentTimeMillis();
+		stickyUntil.values().removeIf(until -> until <= now);
+	}
+
+}
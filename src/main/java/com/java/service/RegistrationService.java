@@ -0,0 +1,171 @@
+package com.java.service;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.java.entity.Customer;
+import com.java.repository.CustomersRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Uniqueness checks for new accounts.
+ *
+ * Emails and customer IDs already taken are kept in two Bloom filters, so a
+ * value the filter has never seen is known to be free without a query. Only
+ * possible hits go to the indexed count queries. The filters are rebuilt from
+ * the customers table on a fixed delay, which also picks up accounts created
+ * on other nodes; a value registered elsewhere in between is still caught by
+ * the primary key / unique email index when the row is inserted.
+ */
+@Service
+public class RegistrationService {
+
+	private static final Logger log = LoggerFactory.getLogger(RegistrationService.class);
+
+	@Autowired
+	CustomersRepository customersRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	ReadYourWrites readYourWrites;
+
+	@Value("${vegana.registration.bloom.expected-insertions:100000}")
+	private long expectedInsertions;
+
+	@Value("${vegana.registration.bloom.false-positive-rate:0.01}")
+	private double falsePositiveRate;
+
+	// null cho đến lần nạp đầu tiên: khi đó mọi kiểm tra đều hỏi CSDL
+	private volatile Filters filters;
+
+	private final Counter skipped;
+
+	private final Counter queried;
+
+	private final Counter falsePositives;
+
+	public RegistrationService(MeterRegistry meterRegistry) {
+		this.skipped = Counter.builder("vegana.registration.uniqueness")
+				.tag("source", "bloom")
+				.description("Uniqueness checks answered by the Bloom filter alone")
+				.register(meterRegistry);
+		this.queried = Counter.builder("vegana.registration.uniqueness")
+				.tag("source", "database")
+				.description("Uniqueness checks that needed the customers table")
+				.register(meterRegistry);
+		this.falsePositives = Counter.builder("vegana.registration.bloom.false-positives")
+				.description("Database checks after a Bloom hit that found the value free")
+				.register(meterRegistry);
+	}
+
+	public boolean isEmailAvailable(String email) {
+		Filters current = filters;
+		if (current != null && !current.emails.mightContain(normalize(email))) {
+			skipped.increment();
+			return true;
+		}
+		queried.increment();
+		boolean available = customersRepository.countByEmail(email) == 0;
+		if (available && current != null) {
+			falsePositives.increment();
+		}
+		return available;
+	}
+
+	public boolean isCustomerIdAvailable(String customerId) {
+		Filters current = filters;
+		if (current != null && !current.customerIds.mightContain(normalize(customerId))) {
+			skipped.increment();
+			return true;
+		}
+		queried.increment();
+		boolean available = customersRepository.countByCustomerId(customerId) == 0;
+		if (available && current != null) {
+			falsePositives.increment();
+		}
+		return available;
+	}
+
+	/**
+	 * Inserts the new customer. Never overwrites an existing account.
+	 *
+	 * @throws DataIntegrityViolationException when the customer ID or email was taken in the meantime
+	 */
+	public void register(Customer customer) {
+		try {
+			customersRepository.insertCustomer(customer.getCustomerId(), customer.getEmail(), customer.getEnabled(),
+					customer.getFullname(), customer.getPassword(), customer.getPhoto(), customer.getRoleId());
+			// tài khoản mới: các trang sau khi đăng nhập (FindByEmail) đọc trên primary khi replica chưa kịp nhận
+			readYourWrites.wrote(customer.getCustomerId());
+		} finally {
+			// thành công hay trùng thì giá trị này cũng đã có trong bảng
+			remember(customer.getCustomerId(), customer.getEmail());
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${vegana.registration.bloom.rebuild-ms:3600000}",
+			fixedDelayString = "${vegana.registration.bloom.rebuild-ms:3600000}")
+	public void rebuild() {
+		Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Long.class);
+		// chừa chỗ cho số tài khoản tăng thêm đến lần nạp sau
+		long expected = Math.max(expectedInsertions, 2 * (count == null ? 0 : count));
+		Filters rebuilt = new Filters(new BloomFilter(expected, falsePositiveRate),
+				new BloomFilter(expected, falsePositiveRate));
+		jdbcTemplate.query("SELECT customerId, email FROM customers", rs -> {
+			rebuilt.add(rs.getString("customerId"), rs.getString("email"));
+		});
+		filters = rebuilt;
+		log.info("Registration Bloom filters loaded: {} customers, {} bits, {} hashes", count,
+				rebuilt.emails.bitCount(), rebuilt.emails.hashCount());
+	}
+
+	private void remember(String customerId, String email) {
+		Filters current = filters;
+		if (current != null) {
+			current.add(customerId, email);
+		}
+	}
+
+	// Gần với collation utf8mb4_general_ci (không phân biệt hoa thường, bỏ khoảng trắng);
+	// các khác biệt còn lại như chữ có dấu do unique index chặn khi insert
+	private static String normalize(String value) {
+		return value == null ? "" : value.strip().toLowerCase(Locale.ROOT);
+	}
+
+	private static final class Filters {
+
+		private final BloomFilter emails;
+
+		private final BloomFilter customerIds;
+
+		Filters(BloomFilter emails, BloomFilter customerIds) {
+			this.emails = emails;
+			this.customerIds = customerIds;
+		}
+
+		void add(String customerId, String email) {
+			if (customerId != null) {
+				customerIds.put(normalize(customerId));
+			}
+			if (email != null) {
+				emails.put(normalize(email));
+			}
+		}
+	}
+
+}
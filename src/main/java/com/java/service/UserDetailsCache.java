@@ -0,0 +1,131 @@
+package com.java.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.java.entity.Customer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Short-lived cache of the customer rows used for authentication.
+ *
+ * Entries expire after vegana.auth.user-cache.ttl-ms and the cache never
+ * grows past max-size (new logins are simply not cached when it is full).
+ * Every JPA update or delete of a customer evicts it through
+ * CustomerCacheListener, so a new password, role or enabled flag is seen on
+ * the next login; the TTL only bounds changes made outside JPA.
+ *
+ * Cached rows are never handed out: callers get a copy, because Spring
+ * Security erases the password of the principal after authentication.
+ */
+@Service
+public class UserDetailsCache {
+
+	@Value("${vegana.auth.user-cache.ttl-ms:300000}")
+	private long ttlMs;
+
+	@Value("${vegana.auth.user-cache.max-size:10000}")
+	private int maxSize;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	// tăng mỗi lần evict: một lần đọc CSDL bắt đầu trước đó không được ghi đè vào cache
+	private final AtomicLong generation = new AtomicLong();
+
+	private final Counter hits;
+
+	private final Counter misses;
+
+	public UserDetailsCache(MeterRegistry meterRegistry) {
+		this.hits = Counter.builder("vegana.auth.user-cache")
+				.tag("result", "hit")
+				.register(meterRegistry);
+		this.misses = Counter.builder("vegana.auth.user-cache")
+				.tag("result", "miss")
+				.register(meterRegistry);
+		meterRegistry.gauge("vegana.auth.user-cache.size", entries, Map::size);
+	}
+
+	/**
+	 * @param loader reads the customer from the database on a miss, may return null
+	 * @return a copy of the cached customer, or null when the loader found none
+	 */
+	public Customer get(String customerId, Supplier<Customer> loader) {
+		String key = key(customerId);
+		long now = System.currentTimeMillis();
+		Entry entry = entries.get(key);
+		if (entry != null && entry.expiresAt > now) {
+			hits.increment();
+			return copy(entry.customer);
+		}
+		misses.increment();
+		long loadedAt = generation.get();
+		Customer customer = loader.get();
+		if (customer == null || ttlMs <= 0) {
+			return customer;
+		}
+		Customer snapshot = copy(customer);
+		if (entries.size() < maxSize && generation.get() == loadedAt) {
+			entries.put(key, new Entry(snapshot, now + ttlMs));
+			if (generation.get() != loadedAt) {
+				// bị evict trong lúc đang ghi
+				entries.remove(key);
+			}
+		}
+		return copy(snapshot);
+	}
+
+	public void evict(String customerId) {
+		generation.incrementAndGet();
+		entries.remove(key(customerId));
+	}
+
+	public void evictAll() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+
+	@Scheduled(fixedDelay = 60000)
+	public void purgeExpired() {
+		long now = System.currentTimeMillis();
+		entries.values().removeIf(entry -> entry.expiresAt <= now);
+	}
+
+	// customerId so sánh không phân biệt hoa thường trong MySQL
+	private static String key(String customerId) {
+		return customerId == null ? "" : customerId.toLowerCase(Locale.ROOT);
+	}
+
+	private static Customer copy(Customer customer) {
+		Customer copy = new Customer();
+		copy.setEnabled(customer.getEnabled());
+		copy.setCustomerId(customer.getCustomerId());
+		copy.setEmail(customer.getEmail());
+		copy.setPassword(customer.getPassword());
+		copy.setFullname(customer.getFullname());
+		copy.setRoleId(customer.getRoleId());
+		return copy;
+	}
+
+	private static final class Entry {
+
+		final Customer customer;
+
+		final long expiresAt;
+
+		Entry(Customer customer, long expiresAt) {
+			this.customer = customer;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+}
@@ -1,13 +1,12 @@
 package com.java.service;
 
-import java.util.Optional;
-
 import org.springframework.beans.factory.annotation.Autowired;
 //import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 //import org.springframework.security.core.Authentication;
 //import org.springframework.security.core.context.SecurityContextHolder;
 //import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 //import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -18,10 +17,13 @@ import com.java.entity.Customer;
 import com.java.repository.CustomersRepository;
 
 @Service
-public class VeganaService implements UserDetailsService{
+public class VeganaService implements UserDetailsService, UserDetailsPasswordService {
 	
 	@Autowired
     CustomersRepository customersRepository;
+
+	@Autowired
+    UserDetailsCache userDetailsCache;
 	
 	// BCryptPasswordEncoder không cần thiết ở đây, đã được inject ở SpringSecurityConfig
 	// @Autowired
@@ -29,16 +31,25 @@ public class VeganaService implements UserDetailsService{
 
     @Override
     public UserDetails loadUserByUsername(String customerId) throws UsernameNotFoundException{
-        Optional<Customer> customer = Optional.ofNullable(customersRepository.findCustomersLogin(customerId));
-        final  Customer  customerLogin = new Customer();
-        customerLogin.setEnabled(customer.get().getEnabled());
-        customerLogin.setCustomerId(customer.get().getCustomerId());
-        customerLogin.setEmail(customer.get().getEmail());
-        customerLogin.setPassword(customer.get().getPassword());
-        customerLogin.setFullname(customer.get().getFullname());
-        customerLogin.setRoleId(customer.get().getRoleId());
+        // Đăng nhập và remember-me đọc qua cache, trả về bản sao của dòng customers
+        Customer customerLogin = userDetailsCache.get(customerId,
+                () -> customersRepository.findCustomersLogin(customerId));
+        if (customerLogin == null) {
+            throw new UsernameNotFoundException(customerId);
+        }
         return customerLogin;
     }
+
+    // Gọi bởi DaoAuthenticationProvider khi hash cũ yếu hơn vegana.password.bcrypt-strength
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Customer customer = (Customer) user;
+        customersRepository.updatePassword(customer.getCustomerId(), newPassword);
+        // native update không qua CustomerCacheListener
+        userDetailsCache.evict(customer.getCustomerId());
+        customer.setPassword(newPassword);
+        return customer;
+    }
     
 //    public void loginFormOAuth2(OAuth2AuthenticationToken oauth2) {
 //		String email = oauth2.getPrincipal().getAttribute("email");
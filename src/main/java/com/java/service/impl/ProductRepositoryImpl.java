@@ -2,6 +2,7 @@ package com.java.service.impl;
 
 import com.java.entity.Product;
 import com.java.repository.ProductRepository;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -35,5 +36,11 @@ public class ProductRepositoryImpl {
         return product;
     }
 
+    // sản phẩm mà AddOrUpdateProduct vừa thêm / cộng số lượng (so khớp tên như procedure)
+    public List<Integer> findIdsByName(String name) {
+        String sql = "SELECT productId FROM products WHERE LOWER(TRIM(name)) = LOWER(TRIM(:name))";
+        return namedParameterJdbcTemplate.queryForList(sql, new MapSqlParameterSource("name", name), Integer.class);
+    }
+
     // Triển khai các phương thức khác trong ProductRepository (nếu cần)
 }
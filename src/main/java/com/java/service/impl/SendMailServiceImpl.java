@@ -3,28 +3,141 @@ package com.java.service.impl;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.java.entity.MailInfo;
+import com.java.repository.MailOutboxRepository;
+import com.java.repository.MailOutboxRepository.PendingMail;
+import com.java.service.MailTemplateService;
 import com.java.service.SendMailService;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Mail queue backed by the mail_outbox table.
+ *
+ * queue() only inserts a row, inside the caller's transaction when there is
+ * one, so a mail is never lost on restart and never sent for a rolled back
+ * change. Worker threads claim due rows in batches, send each batch over one
+ * SMTP connection and reschedule failures with exponential backoff and
+ * jitter until they are moved to the DEAD state.
+ */
 @Service
 public class SendMailServiceImpl implements SendMailService {
 
+	private static final Logger log = LoggerFactory.getLogger(SendMailServiceImpl.class);
+
 	@Autowired
 	JavaMailSender sender;
 
-	List<MailInfo> list = new ArrayList<>();
+	@Autowired
+	MailOutboxRepository mailOutboxRepository;
+
+	@Autowired
+	MailTemplateService mailTemplateService;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${vegana.mail.workers:2}")
+	private int workers;
+
+	@Value("${vegana.mail.batch-size:20}")
+	private int batchSize;
+
+	@Value("${vegana.mail.poll-ms:2000}")
+	private long pollMs;
+
+	@Value("${vegana.mail.retry.base-ms:30000}")
+	private long retryBaseMs;
+
+	@Value("${vegana.mail.retry.max-ms:3600000}")
+	private long retryMaxMs;
+
+	@Value("${vegana.mail.retry.max-attempts:8}")
+	private int maxAttempts;
+
+	// Đánh thức worker ngay khi có mail mới thay vì chờ hết chu kỳ poll
+	private final Object signal = new Object();
+
+	private final AtomicLong pending = new AtomicLong();
+
+	private ExecutorService workerPool;
+
+	private volatile boolean running;
+
+	private Timer sendTimer;
+
+	private Counter sent;
+
+	private Counter failed;
+
+	private Counter dead;
+
+	@PostConstruct
+	void start() {
+		meterRegistry.gauge("vegana.mail.queue.size", pending);
+		sendTimer = Timer.builder("vegana.mail.send")
+				.description("Time to send one batch of mails over a single SMTP connection")
+				.publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+		sent = Counter.builder("vegana.mail.sent").register(meterRegistry);
+		failed = Counter.builder("vegana.mail.failed")
+				.description("Send attempts that failed and were rescheduled")
+				.register(meterRegistry);
+		dead = Counter.builder("vegana.mail.dead")
+				.description("Mails given up after the last retry")
+				.register(meterRegistry);
+
+		running = true;
+		AtomicInteger threadNumber = new AtomicInteger();
+		workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+			Thread thread = new Thread(runnable, "mail-sender-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		for (int i = 0; i < workers; i++) {
+			workerPool.execute(this::workLoop);
+		}
+	}
+
+	@PreDestroy
+	void stop() throws InterruptedException {
+		running = false;
+		workerPool.shutdownNow();
+		workerPool.awaitTermination(10, TimeUnit.SECONDS);
+	}
 
 	@Override
 	public String sendMail(String to, String subject, String body) {
@@ -49,29 +162,23 @@ public class SendMailServiceImpl implements SendMailService {
 
 	@Override
 	public void send(MailInfo mail) throws MessagingException, IOException {
-		// Tạo message
-		MimeMessage message = sender.createMimeMessage();
-		// Sử dụng Helper để thiết lập các thông tin cần thiết cho message
-		MimeMessageHelper helper = new MimeMessageHelper(message, true, "utf-8");
-		helper.setFrom(mail.getFrom());
-		helper.setTo(mail.getTo());
-		helper.setSubject(mail.getSubject());
-		helper.setText(mail.getBody(), true);
-		helper.setReplyTo(mail.getFrom());
-
-		if (mail.getAttachments() != null) {
-			FileSystemResource file = new FileSystemResource(new File(mail.getAttachments()));
-			helper.addAttachment(mail.getAttachments(), file);
-		}
-
 		// Gửi message đến SMTP server
-		sender.send(message);
-
+		sender.send(createMessage(mail));
 	}
 
 	@Override
 	public void queue(MailInfo mail) {
-		list.add(mail);
+		mailOutboxRepository.insert(mail);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					wakeUp();
+				}
+			});
+		} else {
+			wakeUp();
+		}
 	}
 
 	@Override
@@ -79,17 +186,141 @@ public class SendMailServiceImpl implements SendMailService {
 		queue(new MailInfo(to, subject, body));
 	}
 
+	// Gửi hết các mail đến hạn trên luồng hiện tại
 	@Override
-	@Scheduled(fixedDelay = 5000)
 	public void run() {
-		while (!list.isEmpty()) {
-			MailInfo mail = list.remove(0);
+		while (sendDueBatch()) {
+			// tiếp tục cho đến khi không còn mail đến hạn
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${vegana.mail.maintenance-ms:60000}")
+	public void maintenance() {
+		long now = System.currentTimeMillis();
+		// lô SENDING quá lâu: worker / node đã dừng giữa chừng
+		mailOutboxRepository.releaseStaleClaims(new Date(now - TimeUnit.MINUTES.toMillis(10)));
+		mailOutboxRepository.deleteSentOlderThan(new Date(now - TimeUnit.DAYS.toMillis(7)));
+		pending.set(mailOutboxRepository.countPending());
+	}
+
+	private void wakeUp() {
+		synchronized (signal) {
+			signal.notifyAll();
+		}
+	}
+
+	private void workLoop() {
+		while (running) {
 			try {
-				this.send(mail);
-			} catch (Exception e) {
-				e.printStackTrace();
+				if (!sendDueBatch()) {
+					synchronized (signal) {
+						signal.wait(pollMs);
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Mail worker failed", e);
+				try {
+					Thread.sleep(pollMs);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
 			}
 		}
 	}
 
+	// Trả về false khi không còn mail đến hạn
+	private boolean sendDueBatch() {
+		List<PendingMail> batch = mailOutboxRepository.claim(UUID.randomUUID().toString(), batchSize);
+		if (batch.isEmpty()) {
+			return false;
+		}
+		Map<MimeMessage, PendingMail> messages = new LinkedHashMap<>();
+		for (PendingMail pendingMail : batch) {
+			try {
+				messages.put(createMessage(pendingMail.getMail()), pendingMail);
+			} catch (MessagingException | RuntimeException e) {
+				// message không hợp lệ thì thử lại cũng vô ích
+				dead.increment();
+				mailOutboxRepository.markDead(pendingMail.getMailId(), e.toString());
+			}
+		}
+		if (messages.isEmpty()) {
+			return true;
+		}
+		Map<Object, Exception> failures = new HashMap<>();
+		long start = System.nanoTime();
+		try {
+			// JavaMailSender gửi cả mảng message trên cùng một kết nối SMTP
+			sender.send(messages.keySet().toArray(new MimeMessage[0]));
+		} catch (MailSendException e) {
+			if (e.getFailedMessages().isEmpty()) {
+				messages.keySet().forEach(message -> failures.put(message, e));
+			} else {
+				failures.putAll(e.getFailedMessages());
+			}
+		} catch (RuntimeException e) {
+			messages.keySet().forEach(message -> failures.put(message, e));
+		} finally {
+			sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+
+		List<Long> sentIds = new ArrayList<>(messages.size());
+		messages.forEach((message, pendingMail) -> {
+			Exception error = failures.get(message);
+			if (error == null) {
+				sentIds.add(pendingMail.getMailId());
+			} else {
+				retryLater(pendingMail, error);
+			}
+		});
+		if (!sentIds.isEmpty()) {
+			mailOutboxRepository.markSent(sentIds);
+			sent.increment(sentIds.size());
+		}
+		return true;
+	}
+
+	private void retryLater(PendingMail pendingMail, Exception error) {
+		int attempts = pendingMail.getAttempts() + 1;
+		if (attempts >= maxAttempts) {
+			dead.increment();
+			log.warn("Giving up mail {} to {} after {} attempts", pendingMail.getMailId(), pendingMail.getMail().getTo(),
+					attempts, error);
+			mailOutboxRepository.markDead(pendingMail.getMailId(), error.toString());
+			return;
+		}
+		failed.increment();
+		// backoff lũy thừa, jitter +/-50% để các mail lỗi cùng lúc không thử lại cùng lúc;
+		// retryMaxMs chặn cả sau jitter: không lần thử lại nào chờ quá vegana.mail.retry.max-ms
+		long backoff = Math.min(retryMaxMs, retryBaseMs << Math.min(attempts - 1, 20));
+		long delay = Math.min(retryMaxMs, backoff / 2 + ThreadLocalRandom.current().nextLong(backoff + 1));
+		mailOutboxRepository.reschedule(pendingMail.getMailId(), new Date(System.currentTimeMillis() + delay),
+				error.toString());
+	}
+
+	private MimeMessage createMessage(MailInfo mail) throws MessagingException {
+		// Tạo message
+		MimeMessage message = sender.createMimeMessage();
+		// Sử dụng Helper để thiết lập các thông tin cần thiết cho message
+		MimeMessageHelper helper = new MimeMessageHelper(message, true, "utf-8");
+		helper.setFrom(mail.getFrom());
+		helper.setTo(mail.getTo());
+		helper.setSubject(mail.getSubject());
+		// template được dựng tại đây, trên worker gửi mail, không phải trên luồng request
+		String body = mail.getTemplate() == null ? mail.getBody()
+				: mailTemplateService.render(mail.getTemplate(), mail.getLocale(), mail.getVariables());
+		helper.setText(body, true);
+		helper.setReplyTo(mail.getFrom());
+
+		if (mail.getAttachments() != null) {
+			FileSystemResource file = new FileSystemResource(new File(mail.getAttachments()));
+			helper.addAttachment(mail.getAttachments(), file);
+		}
+		return message;
+	}
+
 }
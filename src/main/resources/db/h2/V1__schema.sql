@@ -0,0 +1,182 @@
+-- ----------------------------
+-- Schema cho profile h2 (CSDL nhúng, chế độ MySQL): tương đương vegana_store.sql + db/migration/V1_1 và V2.
+-- Bảng, index, cột sinh ra và view giữ tên như MySQL để các câu SQL native chạy không cần sửa.
+-- Khác MySQL: không có FULLTEXT (tìm kiếm dùng LIKE, vegana.search.fulltext=false),
+-- orders.orderDate NULL thì lấy ngày hiện tại bằng DEFAULT ON NULL thay cho trigger orders_before_insert.
+-- ----------------------------
+
+CREATE TABLE roles (
+  id INT NOT NULL,
+  roleName VARCHAR(255) NULL DEFAULT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE customers (
+  customerId VARCHAR(255) NOT NULL,
+  email VARCHAR(255) NULL DEFAULT NULL,
+  enabled BOOLEAN NULL DEFAULT NULL,
+  fullname VARCHAR(255) NULL DEFAULT NULL,
+  password VARCHAR(255) NULL DEFAULT NULL,
+  photo VARCHAR(255) NULL DEFAULT NULL,
+  roleId INT NULL DEFAULT NULL,
+  PRIMARY KEY (customerId),
+  CONSTRAINT email UNIQUE (email),
+  CONSTRAINT roleID FOREIGN KEY (roleId) REFERENCES roles (id) ON DELETE CASCADE ON UPDATE CASCADE
+);
+
+CREATE TABLE categories (
+  categoryId INT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(255) NULL DEFAULT NULL,
+  PRIMARY KEY (categoryId)
+);
+
+CREATE TABLE suppliers (
+  id INT NOT NULL AUTO_INCREMENT,
+  email VARCHAR(255) NULL DEFAULT NULL,
+  name VARCHAR(255) NULL DEFAULT NULL,
+  phone VARCHAR(255) NULL DEFAULT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT supplierUnique UNIQUE (name)
+);
+
+CREATE TABLE products (
+  productId INT NOT NULL AUTO_INCREMENT,
+  description VARCHAR(255) NULL DEFAULT NULL,
+  discount DOUBLE NULL DEFAULT NULL,
+  enteredDate DATE NULL DEFAULT NULL,
+  image VARCHAR(255) NULL DEFAULT NULL,
+  name VARCHAR(255) NULL DEFAULT NULL,
+  price DOUBLE NULL DEFAULT NULL,
+  quantity INT NULL DEFAULT NULL,
+  categoryId INT NULL DEFAULT NULL,
+  supplierId INT NULL DEFAULT NULL,
+  PRIMARY KEY (productId),
+  CONSTRAINT FKej2ob3ifydf846t2a2tntna4e FOREIGN KEY (categoryId) REFERENCES categories (categoryId) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT FKs2xbxi7wmu948op6qiho9yr8d FOREIGN KEY (supplierId) REFERENCES suppliers (id) ON DELETE CASCADE ON UPDATE CASCADE
+);
+CREATE INDEX idx_products_enteredDate ON products (enteredDate);
+
+CREATE TABLE orders (
+  orderId INT NOT NULL AUTO_INCREMENT,
+  address VARCHAR(255) NULL DEFAULT NULL,
+  description VARCHAR(255) NULL DEFAULT NULL,
+  orderDate DATE DEFAULT CURRENT_DATE DEFAULT ON NULL,
+  phone VARCHAR(255) NULL DEFAULT NULL,
+  receiver VARCHAR(255) NULL DEFAULT NULL,
+  total_price DOUBLE NULL DEFAULT NULL,
+  customerId VARCHAR(255) NULL DEFAULT NULL,
+  orderYear SMALLINT GENERATED ALWAYS AS (YEAR(orderDate)),
+  orderMonth TINYINT GENERATED ALWAYS AS (MONTH(orderDate)),
+  orderQuarter TINYINT GENERATED ALWAYS AS (QUARTER(orderDate)),
+  PRIMARY KEY (orderId),
+  CONSTRAINT customerID FOREIGN KEY (customerId) REFERENCES customers (customerId) ON DELETE CASCADE ON UPDATE CASCADE
+);
+CREATE INDEX idx_orders_orderDate ON orders (orderDate);
+CREATE INDEX idx_orders_year ON orders (orderYear, orderId);
+CREATE INDEX idx_orders_month ON orders (orderMonth, orderId);
+CREATE INDEX idx_orders_quarter ON orders (orderQuarter, orderId);
+
+CREATE TABLE orderdetails (
+  orderDetailId INT NOT NULL AUTO_INCREMENT,
+  price DOUBLE NULL DEFAULT NULL,
+  quantity INT NULL DEFAULT NULL,
+  status VARCHAR(255) NULL DEFAULT NULL,
+  total_price DOUBLE NULL DEFAULT NULL,
+  orderId INT NULL DEFAULT NULL,
+  productId INT NULL DEFAULT NULL,
+  PRIMARY KEY (orderDetailId),
+  CONSTRAINT FK5pie1uapfd704usnm2loi3tex FOREIGN KEY (productId) REFERENCES products (productId) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT orderDetailId FOREIGN KEY (orderId) REFERENCES orders (orderId) ON DELETE CASCADE ON UPDATE CASCADE
+);
+CREATE INDEX idx_orderdetails_status ON orderdetails (status, orderId, total_price);
+CREATE INDEX idx_orderdetails_product_status ON orderdetails (productId, status, quantity);
+
+CREATE TABLE carts (
+  cartId INT NOT NULL AUTO_INCREMENT,
+  customerId VARCHAR(255) NOT NULL,
+  productId INT NULL DEFAULT NULL,
+  quantity INT NULL DEFAULT NULL,
+  price DOUBLE NULL DEFAULT NULL,
+  PRIMARY KEY (cartId),
+  CONSTRAINT uk_carts_customer_product UNIQUE (customerId, productId),
+  CONSTRAINT customerId_fk FOREIGN KEY (customerId) REFERENCES customers (customerId) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT productId_fk FOREIGN KEY (productId) REFERENCES products (productId) ON DELETE CASCADE ON UPDATE CASCADE
+);
+
+CREATE TABLE checkout_requests (
+  requestKey VARCHAR(255) NOT NULL,
+  customerId VARCHAR(255) NOT NULL,
+  orderId INT NOT NULL,
+  itemCount INT NOT NULL,
+  createdAt TIMESTAMP NOT NULL,
+  PRIMARY KEY (requestKey),
+  CONSTRAINT checkout_requests_orderId_fk FOREIGN KEY (orderId) REFERENCES orders (orderId) ON DELETE CASCADE ON UPDATE CASCADE
+);
+CREATE INDEX createdAt_idx ON checkout_requests (createdAt);
+
+CREATE TABLE mail_outbox (
+  mailId BIGINT NOT NULL AUTO_INCREMENT,
+  fromAddress VARCHAR(255) NULL DEFAULT NULL,
+  toAddress VARCHAR(255) NOT NULL,
+  subject VARCHAR(255) NULL DEFAULT NULL,
+  body CLOB NULL,
+  attachments VARCHAR(255) NULL DEFAULT NULL,
+  template VARCHAR(100) NULL DEFAULT NULL,
+  locale VARCHAR(20) NULL DEFAULT NULL,
+  variables CLOB NULL,
+  status VARCHAR(20) NOT NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  nextAttemptAt TIMESTAMP NOT NULL,
+  claimToken VARCHAR(64) NULL DEFAULT NULL,
+  claimedAt TIMESTAMP NULL DEFAULT NULL,
+  lastError VARCHAR(1000) NULL DEFAULT NULL,
+  createdAt TIMESTAMP NOT NULL,
+  sentAt TIMESTAMP NULL DEFAULT NULL,
+  PRIMARY KEY (mailId)
+);
+CREATE INDEX mail_outbox_due_idx ON mail_outbox (status, nextAttemptAt);
+CREATE INDEX mail_outbox_claim_idx ON mail_outbox (claimToken);
+
+CREATE TABLE order_events (
+  eventId BIGINT NOT NULL AUTO_INCREMENT,
+  eventType VARCHAR(50) NOT NULL,
+  orderId INT NOT NULL,
+  customerId VARCHAR(255) NULL DEFAULT NULL,
+  orderDetailId INT NULL DEFAULT NULL,
+  oldStatus VARCHAR(255) NULL DEFAULT NULL,
+  newStatus VARCHAR(255) NULL DEFAULT NULL,
+  status VARCHAR(20) NOT NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  createdAt TIMESTAMP NOT NULL,
+  claimedAt TIMESTAMP NULL DEFAULT NULL,
+  processedAt TIMESTAMP NULL DEFAULT NULL,
+  PRIMARY KEY (eventId)
+);
+CREATE INDEX order_events_status_idx ON order_events (status, createdAt);
+
+-- ----------------------------
+-- View (cùng cột với MySQL)
+-- ----------------------------
+CREATE VIEW bill_view AS
+SELECT o.orderId AS orderId, o.customerId AS customerId, c.fullname AS fullname, o.phone AS phone,
+  o.address AS address, o.orderDate AS orderDate, od.status AS status,
+  GROUP_CONCAT(CONCAT(pr.name, ' (Giá: ', (pr.price - ((pr.price * pr.discount) / 100)), ', Số lượng: ', od.quantity, ')') SEPARATOR ', ') AS product_list,
+  o.total_price AS total_price
+FROM orders o
+JOIN customers c ON o.customerId = c.customerId
+JOIN orderdetails od ON o.orderId = od.orderId
+JOIN products pr ON od.productId = pr.productId
+GROUP BY o.orderId, o.customerId, c.fullname, o.phone, o.address, o.orderDate, od.status, o.total_price;
+
+CREATE VIEW cart_product_view AS
+SELECT c.cartId AS cartId, c.customerId AS customerId, p.name AS name, p.image AS image, c.productId AS productId,
+  c.quantity AS quantity, p.discount AS discount, (p.price - ((p.price * p.discount) / 100)) AS price,
+  ((p.price - ((p.price * p.discount) / 100)) * c.quantity) AS totalPrice
+FROM carts c
+JOIN products p ON c.productId = p.productId;
+
+CREATE VIEW revenue_view AS
+SELECT SUM(od.total_price) AS total_revenue
+FROM orderdetails od
+JOIN orders o ON od.orderId = o.orderId
+WHERE od.status = 'Đã Thanh Toán';
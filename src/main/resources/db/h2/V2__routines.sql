@@ -0,0 +1,19 @@
+-- ----------------------------
+-- Procedure và trigger của vegana_store.sql cho profile h2.
+-- H2 không có procedure / trigger viết bằng SQL: mỗi cái là một lớp Java trong com.java.config.h2
+-- với cùng tên và cùng logic, nên CALL UpdateOrInsertIntoCart(...) / CALL AddOrUpdateProduct(...) không đổi.
+-- ----------------------------
+
+CREATE ALIAS UpdateOrInsertIntoCart FOR 'com.java.config.h2.H2Procedures.updateOrInsertIntoCart';
+CREATE ALIAS AddOrUpdateProduct FOR 'com.java.config.h2.H2Procedures.addOrUpdateProduct';
+
+CREATE TRIGGER check_product_quantity BEFORE UPDATE ON carts FOR EACH ROW
+  CALL 'com.java.config.h2.H2Triggers$CheckProductQuantity';
+CREATE TRIGGER delete_cart_item AFTER UPDATE ON carts FOR EACH ROW
+  CALL 'com.java.config.h2.H2Triggers$DeleteCartItem';
+CREATE TRIGGER create_cart_for_new_customer AFTER INSERT ON customers FOR EACH ROW
+  CALL 'com.java.config.h2.H2Triggers$CreateCartForNewCustomer';
+CREATE TRIGGER updateProductQuantityAfterStatusChange AFTER UPDATE ON orderdetails FOR EACH ROW
+  CALL 'com.java.config.h2.H2Triggers$UpdateProductQuantityAfterStatusChange';
+CREATE TRIGGER restoreProductQuantityAfterDelete AFTER DELETE ON orderdetails FOR EACH ROW
+  CALL 'com.java.config.h2.H2Triggers$RestoreProductQuantityAfterDelete';
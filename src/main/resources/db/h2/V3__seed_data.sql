@@ -0,0 +1,120 @@
+-- ----------------------------
+-- Dữ liệu mẫu cho profile h2: bản ghi của vegana_store.sql (vai trò, tài khoản, danh mục,
+-- nhà cung cấp, sản phẩm, đơn hàng). Giỏ hàng rỗng của mỗi khách do trigger create_cart_for_new_customer tạo.
+-- Tài khoản như trên MySQL: admin / khai00 / ... (mật khẩu BCrypt giữ nguyên).
+-- ----------------------------
+
+INSERT INTO roles (id, roleName) VALUES
+(0, 'ROLE_CUSTOMER'),
+(1, 'ROLE_ADMIN');
+
+INSERT INTO customers (customerId, email, enabled, fullname, password, photo, roleId) VALUES
+('admin', 'adminvegana@gmail.com', TRUE, 'Tôi là admin', '$2a$10$1iPiIh9Mw/8jFkmrTzVhs.CrY8rBMn1hWHVSw2NPn92hRTK4kYwHu', '', 1),
+('khachhang00', 'vv@gg', TRUE, 'Nguyễn Ngọc Nam', '$2a$10$f9sN7gLXdNaXYBs7nqroKeF0xf7B7DiMUBkIxJoVszQfb82nLrRWe', '', 0),
+('khai00', 'khaikhai331@gmail.com', TRUE, 'Phan Hoàng Khải ', '$2a$10$j.MEMT2MkdQTF8OJ59As2OTw4Nhaxg0cCBnscsxMpFwhHx1.72.6a', '', 0),
+('khai11', 'khaixrkyz@gmail.com', TRUE, 'phan hoang khai', '$2a$10$ITDgfCJRVqIMaXpxKL72rOZ/lLQg3.0jcMm3fypsxdIET2OKJGluK', '', 0),
+('sonnika', 'sonnguyenhong382@gmail.com', TRUE, 'nguyen hong son', '$2a$10$rFvjHR41HlhHgrk6zlrgX.x4fDJIRLi/9ufvb2AIFM4I23OqL7Xsa', '', 0);
+
+INSERT INTO categories (categoryId, name) VALUES
+(13, 'autocat'),
+(11, 'AutoCat-1765414134982'),
+(12, 'AutoCat-1765414285596'),
+(15, 'autocatteee'),
+(5, 'Candy'),
+(2, 'Cookies'),
+(8, 'demo cate'),
+(4, 'Drinks'),
+(10, 'Keo'),
+(3, 'Milk'),
+(1, 'Snack');
+
+INSERT INTO suppliers (id, email, name, phone) VALUES
+(1, 'vinamilk@gmail.com', 'Vinamilk', '0915999999'),
+(2, 'nestle@gmail.com', 'Nestle', '0915999988'),
+(3, 'snack@gmail.com', 'Snack', '0915999966'),
+(4, 'cookies@gmail.com', 'Cookies', '0915999666'),
+(5, 'pepsicola@gmail.com', 'Pepsi Cola', '0915998888'),
+(6, 'bibica@gmail.com', 'Bibica', '0915998668');
+
+INSERT INTO products (productId, description, discount, enteredDate, image, name, price, quantity, categoryId, supplierId) VALUES
+(3, 'Snack bắp vị phô mai Oishi Tom Toms (45g/gói)', 10, '2021-09-02', 'snack-oishi-toms.jpg', 'Snack Oishi Tom Toms', 50, 86, 1, 3),
+(4, 'Snack bắp ngọt Oishi (45g/gói)', 5, '2021-09-02', 'snack-bap-ngot.jpg', 'Snack bắp ngọt Oishi', 40, 308, 1, 3),
+(5, 'Snack nhân sô cô la Oishi Pillows (100g) ', 10, '2021-09-01', 'snack-pillows.jpg', 'Snack Oishi Pillows', 60, 46, 1, 3),
+(6, 'Snack khoai tây vị muối Oishi Flutes (40g)', 5, '2021-09-02', 'snack-flutes.jpg', 'Snack Oishi Flutes', 40, 46, 1, 3),
+(7, 'Snack nhân sữa dừa Oishi Pillows (100g)', 10, '2021-09-01', 'snack-nhan-pillows.jpg', 'Snack sữa dừa Oishi Pillows', 80, 80, 1, 3),
+(8, 'Snack khoai tây poca (30) gr', 0, '2021-09-02', 'snack-poca.jpg', 'Snack khoai tây Poca', 50, 298, 1, 3),
+(9, 'Snack cua vị sốt chua ngọt Oishi Crab Me! (45g/gói)', 10, '2021-09-02', 'snack-crabme.jpg', 'Snack Oishi Crab Me', 60, 40, 1, 3),
+(10, 'Snack vị bò bít tết poca steack (40g)', 10, '2021-09-02', 'snack-poca-cay.jpg', 'Snack Poca Steack', 80, 61, 1, 3),
+(11, 'Snack bim bim thái (40g)', 5, '2021-09-02', 'snack-martys.jpg', 'Snack Thái Martys', 60, 40, 1, 3),
+(12, 'Yến mạch hạnh nhân Dan-D Pak (350g) ', 0, '2021-09-02', 'Yến-mạch-hạnh-nhân-Dan-D-Pak-350g.jpg', 'Dan-D Pak', 100, 49, 2, 4),
+(13, 'Bánh Quy Viên Sô Cô La Misura 290g', 5, '2021-09-03', 'banh-mizura.jpg', 'Sô Cô La Misura', 110, 30, 2, 4),
+(14, 'Bánh quy Cosy nhân mứt vị táo hộp 240g', 10, '2021-09-02', 'banh-tik.jpg', 'Cookies Tik ', 120, 10, 2, 4),
+(15, 'Bánh gạo nướng An vị cá Nhật thượng hạng Orion gói 117.6g', 0, '2021-09-02', 'banh-orion.jpg', 'Bánh Orion', 90, 60, 2, 4),
+(16, 'Bánh ăn sáng C’est Bon sợi thịt gà là lựa chọn hoàn hảo cho bữa ăn sáng hàng ngày của cả nhà', 5, '2021-09-02', 'banh-orion-bon.jpg', 'Bánh C’est Bon', 150, 50, 2, 4),
+(17, 'Bánh quy mini kem socola Oreo (23g)', 0, '2021-09-03', 'banh-mini-oreo.jpg', 'Bánh quy socola Oreo', 20, 10, 2, 4),
+(18, 'Bánh quy cacao nhân kem hạnh nhân YBC 18 cái (115.2g)', 10, '2021-09-07', 'banh-noir.jpg', 'Bánh quy cacao', 120, 30, 2, 3),
+(19, 'Bánh quy dinh dưỡng hạt Mắc ca kết hợp Nghệ - Hộp 12 bánh 45g', 5, '2021-09-04', 'banh-mac-ca.jpg', 'Bánh quy hạt Mắc ca', 200, 10, 2, 4),
+(20, 'Bánh quy Danisa được sản xuất từ công thức chính gốc của Đan Mạch, với nguyên liệu được lựa chọn kỹ càng, tinh túy nhất, sử dụng loại bơ thượng hạng giàu hương vị góp phần tạo nên sự khác biệt độc đáo so với các dòng bánh quy bơ khác.', 5, '2021-09-05', 'banh-danisa.jpg', 'Bánh Danisa', 300, 50, 2, 4),
+(21, 'Kẹo dẻo Jellyc Hải Hà kotobuki 100g', 0, '2021-09-03', 'chip-chip-panda.jpg', 'Chip Chip HAIHA', 40, 100, 5, 6),
+(22, 'Kẹo AnyTime Hàn Quốc 60 gram ( vị sữa và bạc hà) thanh mát.', 0, '2021-09-14', 'keo-anytime.jpg', 'Kẹo AnyTime', 50, 200, 5, 6),
+(23, 'Kẹo Cao Su Doublemint Vị Bạc Hà', 10, '2021-09-01', 'keo-doublemint.jpg', 'Kẹo Doublemint', 60, 100, 5, 6),
+(24, 'Hộp Hạt Hạnh Nhân Dinh Dưỡng Cho Mẹ REAL FOOD STORE (250g) ', 10, '2021-09-15', 'hat-hanh-nhan.jpg', 'Hạt Hạnh Nhân', 200, 200, 5, 6),
+(25, 'Hạt hạnh nhân nguyên chất Kirkland Almonds Mỹ 1.36kg', 10, '2021-09-10', 'hat-almonds.jpg', 'Hạt hạnh nhân Kirkland', 300, 99, 5, 6),
+(26, 'Túi Hạt Macca Dinh Dưỡng Cho Mẹ Real Food Store (500g)', 0, '2021-09-08', 'hat-nuts.jpg', 'Hạt Macca Dinh Dưỡng', 200, 100, 5, 6),
+(27, 'Nhân Hạt Óc Chó Sunrise (120gr) Hạt Dinh Dưỡng Đã Tách Vỏ Quả Óc Chó.Nhập Khẩu Mỹ', 10, '2021-09-10', 'hat-oc-cho.jpg', 'Nhân Hạt Óc Chó Sunrise', 400, 300, 5, 6),
+(28, 'Lốc 3 Hộp Sữa Hạt Hạnh Nhân Nguyên Chất 137 180ml', 0, '2021-09-03', 'sua-hanh-nhan.jpg', 'Sữa Hạt Hạnh Nhân ', 60, 100, 3, 2),
+(29, 'Nước ngọt Mirinda hương cam chai 1.5 lít', 10, '2021-09-10', 'nuoc-mirinda-cam.jpg', 'Mirinda vị cam', 100, 60, 4, 5),
+(30, 'Nước ngọt Mountain Dew 390 ml', 0, '2021-09-16', 'nuoc-mountain.jpg', 'Mountain Dew', 80, 300, 4, 5),
+(31, 'Trà ô long TEA 350ml', 5, '2021-09-11', 'tra-o-long.jpg', 'Trà TEA+', 45, 50, 4, 5),
+(32, 'Nước uống Isotonic vị chanh muối', 0, '2021-09-17', 'nuoc-revive.jpg', 'Nước Revive', 65, 201, 4, 5),
+(33, 'Nước uống đóng chai Aquafina (500ml)', 0, '2021-09-09', 'nuoc-aquafina.jpg', 'Aquafina', 20, 299, 4, 5),
+(34, 'Nước ngọt 7Up', 0, '2021-09-08', 'nuoc-7-up.jpg', '7Up', 35, 200, 4, 5),
+(35, 'Trà Lipton ICE Tea', 20, '2021-09-06', 'lipton-tea.jpg', 'Lipton Tea', 85, 300, 4, 5),
+(36, 'Nước giải khát Coca-Cola Plus (330ml)', 0, '2021-09-11', 'coca-cola-plus.jpg', 'Coca-Cola Plus', 100, 100, 4, 5),
+(37, 'Nước Giải Khát Coca-Cola vị Nguyên Bản Original 320mlx6 | Nước có gas', 5, '2021-09-19', 'coca-cola-original.jpg', ' Coca-Cola vị  Original', 120, 200, 4, 5),
+(38, 'Nước Giải Khát Coca-Cola | Nước có gas', 5, '2021-09-17', 'coca-cola.jpg', 'Coca-Cola', 125, 295, 4, 5),
+(39, 'Sữa Dielac Grow Plus 1+ Màu Xanh Tăng Cân, 1-2 tuổi, Vinamilk', 10, '2021-09-11', 'sua-dielac-grow-plus.jpg', 'Sữa Dielac Grow Plus', 500, 300, 3, 1),
+(40, 'SỮA BỘT GOLD YOKO 1 VINAMILK 850G DÀNH CHO BÉ TỪ 0 - 1 Tuổi | Sữa cho bé dưới 24 tháng', 10, '2021-09-09', 'sua-bot-yoko.jpg', 'SỮA BỘT GOLD YOKO', 700, 100, 3, 1),
+(41, 'HỘP SỮA BỘT VINAMILK DIELAC ALPHA GOLD IQ 1 (400G) (CHO TRẺ TỪ 0 - 6 THÁNG TUỔI) ', 5, '2021-09-12', 'sua-alpha.jpg', 'DIELAC ALPHA GOLD', 600, 300, 3, 1),
+(42, 'Sữa bột Vinamilk Dielac Optimum số 2 - hộp thiếc 900g (dành cho trẻ từ 6-12 tháng tuổi)', 15, '2021-09-11', 'sua-optimum.jpg', 'Dielac Optimum', 500, 100, 3, 1),
+(43, 'Sữa dielac grow plus 1+ 900g dành cho trẻ từ 1-2 tuổi', 10, '2021-09-08', 'sua-grow-plus.jpg', 'Sữa Dielac Grow Plus-Red', 650, 300, 3, 1),
+(44, 'Sữa tươi tiệt trùng Vinamilk 100% có đường 180ml (1 hộp)', 5, '2021-09-11', 'sua-tuoi-vinamilk.jpg', 'Sữa Tươi Vinamilk', 35, 200, 3, 1),
+(45, 'Sữa Nestle Milo nước (Lon 240ml)', 0, '2021-09-09', 'nestle-milo.jpg', ' Sữa Nestle Milo', 25, 200, 3, 2),
+(46, 'Sữa Lúa Mạch Nestlé MILO Lon Thùng 24 Lon x 240 ml (4x6x240ml) | Sữa Tươi', 0, '2021-09-11', 'milo-thung.jpg', 'Sữa Lúa Mạch Nestlé MILO', 300, 200, 3, 2),
+(47, 'THÙNG SỮA ĐẬU NÀNH VINAMILK HẠT ÓC CHÓ -48 HỘP 180ML | Sữa Tươi', 0, '2021-09-11', 'sua-oc-cho.jpg', 'Sữa Hạt Óc Chó', 45, 199, 3, 1),
+(48, 'Túi Nhân Hạt Óc Chó Dinh Dưỡng Cho Mẹ Real Food (200g) | Dinh dưỡng cho mẹ', 10, '2021-09-12', 'hat-occho.jpg', 'Túi Nhân Hạt Óc Chó', 250, 307, 1, 3),
+(49, 'Combo 3 hộp sữa hạt dẻ 1L 137 Degrees Thái Lan', 5, '2021-09-05', 'sua-pistachio.jpg', 'Sữa Hạt Dẻ', 45, 100, 3, 2),
+(54, 'mô tả', 5, '2021-09-09', 'den_mk052_1_0ddcbcb5ca3d4d3e8bb6ac99fcb7c23f_grande.jpg', 'test', 1000000, 20, 1, 1),
+(59, 'Auto generated product for UI test', 25, '2025-12-11', 'coca-cola.jpg', 'autoproduct-1765412954799', 12345, 5, 5, 1),
+(60, 'Auto generated product for UI test', 25, '2025-12-11', 'coca-cola.jpg', 'autoproduct-1765413236197', 12345, 5, 5, 1),
+(61, 'Auto generated product for UI test', 25, '2025-12-11', 'coca-cola.jpg', 'autoproduct-1765413311038', 12345, 5, 5, 1),
+(62, 'Auto generated product for UI test', 25, '2025-12-11', 'coca-cola.jpg', 'autoproduct-1765413880666', 12345, 5, 5, 1),
+(63, 'Auto generated product for UI test', 25, '2025-12-11', 'coca-cola.jpg', 'autoproduct-1765414304348', 12345, 5, 11, 1);
+
+INSERT INTO orders (orderId, address, description, orderDate, phone, receiver, total_price, customerId) VALUES
+(49, '01 Vo Van Ngan Street', 'giao muộn là xuống địa ngục', '2023-05-20', '0367151727', 'Khai Phan', 11486, 'khai00'),
+(50, '01 Vo Van Ngan Street', 'giao muộn là xuống địa ngục', '2023-05-21', '0367151727', 'Khai Phan', 114, 'khai00'),
+(51, '01 Vo Van Ngan Street', 'giao muộn là xuống địa ngục', '2023-05-22', '0367151727', 'Khai Phan', 263, 'khai00'),
+(52, '01 Vo Van Ngan Street', 'giao muộn là xuống địa ngục', '2023-05-22', '0367151727', 'Khai Phan', 315, 'khai00');
+
+INSERT INTO orderdetails (orderDetailId, price, quantity, status, total_price, orderId, productId) VALUES
+(82, 54, 7, 'Đã Thanh Toán', 378, 49, 5),
+(83, 38, 7, 'Đã Thanh Toán', 266, 49, 6),
+(84, 72, 7, 'Đã Thanh Toán', 504, 49, 7),
+(85, 50, 7, 'Đã Thanh Toán', 350, 49, 8),
+(86, 54, 7, 'Đã Thanh Toán', 378, 49, 9),
+(87, 72, 7, 'Đã Thanh Toán', 504, 49, 10),
+(88, 57, 7, 'Đã Thanh Toán', 399, 49, 11),
+(89, 108, 7, 'Đã Thanh Toán', 756, 49, 18),
+(90, 225, 7, 'Đang Giao Dịch', 1575, 49, 48),
+(91, 100, 7, 'Đã Thanh Toán', 700, 49, 12),
+(92, 104.5, 7, 'Đã Thanh Toán', 731.5, 49, 13),
+(93, 108, 7, 'Đã Thanh Toán', 756, 49, 14),
+(94, 90, 7, 'Đã Thanh Toán', 630, 49, 15),
+(95, 142.5, 7, 'Đã Thanh Toán', 997.5, 49, 16),
+(96, 20, 4, 'Đã Thanh Toán', 80, 49, 17),
+(97, 190, 4, 'Đã Thanh Toán', 760, 49, 19),
+(98, 285, 4, 'Đã Thanh Toán', 1140, 49, 20),
+(99, 38, 3, 'Đã Thanh Toán', 114, 50, 6),
+(100, 38, 1, 'Đã Thanh Toán', 38, 51, 6),
+(102, 45, 7, 'Đã Thanh Toán', 315, 52, 3);
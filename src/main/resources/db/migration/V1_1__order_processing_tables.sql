@@ -0,0 +1,69 @@
+-- ----------------------------
+-- Bảng và index mà code cần nhưng vegana_store.sql (baseline V1) chưa có:
+-- checkout_requests (chống đặt đơn trùng), order_events (outbox sự kiện đơn hàng),
+-- mail_outbox (hàng đợi mail) và unique index email của customers.
+-- IF NOT EXISTS / kiểm tra information_schema: CSDL đã có sẵn các bảng này (tạo từ bản dump có chúng)
+-- chạy migration mà không lỗi; spring.flyway.out-of-order cho phép chạy nó sau V2 đã áp dụng.
+-- ----------------------------
+
+CREATE TABLE IF NOT EXISTS `checkout_requests` (
+  `requestKey` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL,
+  `customerId` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL,
+  `orderId` int NOT NULL,
+  `itemCount` int NOT NULL,
+  `createdAt` datetime NOT NULL,
+  PRIMARY KEY (`requestKey`) USING BTREE,
+  INDEX `createdAt_idx`(`createdAt` ASC) USING BTREE,
+  INDEX `checkout_requests_orderId_idx`(`orderId` ASC) USING BTREE,
+  CONSTRAINT `checkout_requests_orderId_fk` FOREIGN KEY (`orderId`) REFERENCES `orders` (`orderId`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci ROW_FORMAT = Dynamic;
+
+CREATE TABLE IF NOT EXISTS `order_events` (
+  `eventId` bigint NOT NULL AUTO_INCREMENT,
+  `eventType` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL,
+  `orderId` int NOT NULL,
+  `customerId` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `orderDetailId` int NULL DEFAULT NULL,
+  `oldStatus` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `newStatus` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `status` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL,
+  `attempts` int NOT NULL DEFAULT 0,
+  `createdAt` datetime NOT NULL,
+  `claimedAt` datetime NULL DEFAULT NULL,
+  `processedAt` datetime NULL DEFAULT NULL,
+  PRIMARY KEY (`eventId`) USING BTREE,
+  INDEX `order_events_status_idx`(`status` ASC, `createdAt` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci ROW_FORMAT = Dynamic;
+
+CREATE TABLE IF NOT EXISTS `mail_outbox` (
+  `mailId` bigint NOT NULL AUTO_INCREMENT,
+  `fromAddress` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `toAddress` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL,
+  `subject` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `body` mediumtext CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL,
+  `attachments` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `template` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `locale` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `variables` text CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL,
+  `status` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL,
+  `attempts` int NOT NULL DEFAULT 0,
+  `nextAttemptAt` datetime NOT NULL,
+  `claimToken` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `claimedAt` datetime NULL DEFAULT NULL,
+  `lastError` varchar(1000) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL,
+  `createdAt` datetime NOT NULL,
+  `sentAt` datetime NULL DEFAULT NULL,
+  PRIMARY KEY (`mailId`) USING BTREE,
+  INDEX `mail_outbox_due_idx`(`status` ASC, `nextAttemptAt` ASC) USING BTREE,
+  INDEX `mail_outbox_claim_idx`(`claimToken` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci ROW_FORMAT = Dynamic;
+
+-- customers.email: RegistrationService dựa vào unique index để chặn hai lần đăng ký cùng email chạy song song.
+-- Email trùng có sẵn trong dữ liệu thì migration dừng ở đây: cần gộp / sửa các tài khoản đó trước.
+SET @email_index_exists := (SELECT COUNT(*) FROM information_schema.statistics
+  WHERE table_schema = DATABASE() AND table_name = 'customers' AND index_name = 'email');
+SET @add_email_index := IF(@email_index_exists = 0,
+  'ALTER TABLE `customers` ADD UNIQUE INDEX `email`(`email` ASC) USING BTREE', 'DO 0');
+PREPARE add_email_index FROM @add_email_index;
+EXECUTE add_email_index;
+DEALLOCATE PREPARE add_email_index;
@@ -0,0 +1,11 @@
+-- ----------------------------
+-- Cột sinh ra cho báo cáo doanh thu theo năm / tháng / quý (OrderDetailRepository.repoWhere*).
+-- V1 là schema trong vegana_store.sql (baseline), các thay đổi schema sau đó nằm ở db/migration.
+-- Index của các cột này nằm ở db/pending/V2_1__performance_indexes.sql, chờ kiểm tra EXPLAIN trên MySQL.
+-- ----------------------------
+
+-- năm / tháng / quý của orderDate là cột sinh ra (VIRTUAL, không tốn chỗ trong bảng)
+ALTER TABLE `orders`
+  ADD COLUMN `orderYear` SMALLINT AS (YEAR(`orderDate`)) VIRTUAL,
+  ADD COLUMN `orderMonth` TINYINT AS (MONTH(`orderDate`)) VIRTUAL,
+  ADD COLUMN `orderQuarter` TINYINT AS (QUARTER(`orderDate`)) VIRTUAL;
@@ -0,0 +1,29 @@
+-- ----------------------------
+-- Bảng session HTTP (Spring Session JDBC), dùng chung cho mọi node sau load balancer:
+-- không cần sticky session, khởi động lại node không làm khách hàng bị đăng xuất.
+-- Cùng cấu trúc với schema-mysql.sql của spring-session-jdbc (tên bảng / cột mà thư viện truy vấn).
+-- ----------------------------
+
+CREATE TABLE `SPRING_SESSION` (
+  `PRIMARY_ID` CHAR(36) NOT NULL,
+  `SESSION_ID` CHAR(36) NOT NULL,
+  `CREATION_TIME` BIGINT NOT NULL,
+  `LAST_ACCESS_TIME` BIGINT NOT NULL,
+  `MAX_INACTIVE_INTERVAL` INT NOT NULL,
+  `EXPIRY_TIME` BIGINT NOT NULL,
+  `PRINCIPAL_NAME` VARCHAR(100) NULL DEFAULT NULL,
+  PRIMARY KEY (`PRIMARY_ID`),
+  UNIQUE INDEX `SPRING_SESSION_IX1` (`SESSION_ID`),
+  -- dọn session hết hạn theo lô (DELETE ... WHERE EXPIRY_TIME < ? LIMIT ?) đi theo index này
+  INDEX `SPRING_SESSION_IX2` (`EXPIRY_TIME`),
+  INDEX `SPRING_SESSION_IX3` (`PRINCIPAL_NAME`)
+) ENGINE = InnoDB ROW_FORMAT = DYNAMIC;
+
+-- giá trị thuộc tính đã serialize (CompactSessionSerializer); xoá session thì xoá theo (CASCADE)
+CREATE TABLE `SPRING_SESSION_ATTRIBUTES` (
+  `SESSION_PRIMARY_ID` CHAR(36) NOT NULL,
+  `ATTRIBUTE_NAME` VARCHAR(200) NOT NULL,
+  `ATTRIBUTE_BYTES` BLOB NOT NULL,
+  PRIMARY KEY (`SESSION_PRIMARY_ID`, `ATTRIBUTE_NAME`),
+  CONSTRAINT `SPRING_SESSION_ATTRIBUTES_FK` FOREIGN KEY (`SESSION_PRIMARY_ID`) REFERENCES `SPRING_SESSION` (`PRIMARY_ID`) ON DELETE CASCADE
+) ENGINE = InnoDB ROW_FORMAT = DYNAMIC;
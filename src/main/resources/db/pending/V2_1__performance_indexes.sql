@@ -0,0 +1,39 @@
+-- ----------------------------
+-- Index cho các truy vấn báo cáo, tìm kiếm và danh sách sản phẩm. CHƯA nằm trong spring.flyway.locations:
+-- chỉ chuyển file này vào db/migration sau khi QueryPlanTest (EXPLAIN) đã pass trên MySQL có dữ liệu thật.
+-- Chạy thử: khởi động ứng dụng với
+--   --spring.flyway.locations=classpath:db/migration,classpath:db/pending
+-- rồi chạy QueryPlanTest trên CSDL đó.
+-- ----------------------------
+
+-- orders: báo cáo GROUP BY cột sinh ra năm / tháng / quý (V2) đọc thẳng từ index
+ALTER TABLE `orders`
+  ADD INDEX `idx_orders_orderDate` (`orderDate`),
+  ADD INDEX `idx_orders_year` (`orderYear`, `orderId`),
+  ADD INDEX `idx_orders_month` (`orderMonth`, `orderId`),
+  ADD INDEX `idx_orders_quarter` (`orderQuarter`, `orderId`);
+
+-- orderdetails: revenue_view lọc theo status; tồn kho (InventoryRepository) cộng quantity theo productId + status.
+-- index mới bắt đầu bằng productId nên thay được index riêng của khóa ngoại productId
+ALTER TABLE `orderdetails`
+  ADD INDEX `idx_orderdetails_status` (`status`, `orderId`, `total_price`),
+  ADD INDEX `idx_orderdetails_product_status` (`productId`, `status`, `quantity`),
+  DROP INDEX `FK5pie1uapfd704usnm2loi3tex`;
+
+-- products: trang chủ (10 sản phẩm mới nhất), tìm theo tên (FULLTEXT ngram khớp một đoạn của tên như LIKE '%...%')
+ALTER TABLE `products`
+  ADD INDEX `idx_products_enteredDate` (`enteredDate`);
+-- không gắn danh sách stopword vào index: với ngram, các cụm như "an", "in" là stopword tiếng Anh
+-- và sẽ làm "chanh", "nhìn"... không tìm thấy
+SET SESSION innodb_ft_enable_stopword = OFF;
+ALTER TABLE `products`
+  ADD FULLTEXT INDEX `ft_products_name` (`name`) WITH PARSER ngram;
+SET SESSION innodb_ft_enable_stopword = ON;
+
+-- carts: mỗi khách hàng một dòng cho mỗi sản phẩm (UpdateOrInsertIntoCart cộng dồn quantity).
+-- Bỏ các dòng trùng cũ, giữ dòng đầu tiên; unique index thay cho customerId_idx (khóa ngoại dùng cột đầu của nó)
+DELETE `c` FROM `carts` `c`
+  JOIN `carts` `k` ON `c`.`customerId` = `k`.`customerId` AND `c`.`productId` = `k`.`productId` AND `c`.`cartId` > `k`.`cartId`;
+ALTER TABLE `carts`
+  ADD UNIQUE INDEX `uk_carts_customer_product` (`customerId`, `productId`),
+  DROP INDEX `customerId_idx`;
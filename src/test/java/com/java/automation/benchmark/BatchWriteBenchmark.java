@@ -0,0 +1,153 @@
+package com.java.automation.benchmark;
+
+import com.java.automation.utils.LoggerUtil;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Benchmark ghi nhiều dòng vào MySQL: từng câu lệnh, JDBC batch, và JDBC
+ * batch với rewriteBatchedStatements (cấu hình của ứng dụng).
+ *
+ * Không nằm trong testng.xml. Cần một MySQL đang chạy; chỉ ghi vào bảng
+ * TEMPORARY có cấu trúc như orderdetails nên không đụng dữ liệu thật. Không
+ * kết nối được thì các test bị skip. Chạy riêng:
+ *
+ *   mvn test -Dtest=BatchWriteBenchmark
+ *   mvn test -Dtest=BatchWriteBenchmark -Dbenchmark.jdbc.url=jdbc:mysql://localhost:3306/vegana_store -Dbenchmark.batch.rows=20000
+ *
+ * Số câu lệnh server thực sự chạy lấy từ Com_insert / Com_update của
+ * session, nên thấy được batch đã được gộp thành một câu nhiều dòng hay chưa.
+ */
+public class BatchWriteBenchmark {
+
+    private static final String URL = System.getProperty("benchmark.jdbc.url",
+            "jdbc:mysql://localhost:3306/vegana_store?useUnicode=true&characterEncoding=utf8");
+    private static final String USER = System.getProperty("benchmark.jdbc.username", "root");
+    private static final String PASSWORD = System.getProperty("benchmark.jdbc.password", "123456");
+    private static final int ROWS = Integer.getInteger("benchmark.batch.rows", 5000);
+    private static final int BATCH_SIZE = Integer.getInteger("benchmark.batch.size", 50);
+
+    private static final String CREATE_TABLE = "CREATE TEMPORARY TABLE bench_orderdetails ("
+            + "orderDetailId INT NOT NULL AUTO_INCREMENT PRIMARY KEY, price DOUBLE, quantity INT, "
+            + "status VARCHAR(255), total_price DOUBLE, orderId INT, productId INT, KEY (orderId))";
+    private static final String INSERT = "INSERT INTO bench_orderdetails "
+            + "(price, quantity, status, total_price, orderId, productId) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE bench_orderdetails SET status = ? WHERE orderDetailId = ?";
+
+    @BeforeClass
+    public void checkDatabase() {
+        try (Connection ignored = connect(false)) {
+            LoggerUtil.info("[batch-benchmark] MySQL: " + URL + ", " + ROWS + " rows, batch size " + BATCH_SIZE);
+        } catch (SQLException e) {
+            throw new SkipException("MySQL không kết nối được (" + URL + "): " + e.getMessage());
+        }
+    }
+
+    @Test(priority = 1, description = "01. Batch - Mỗi dòng một câu lệnh (trước)")
+    public void testRowByRow() throws Exception {
+        run("row by row", false, false);
+    }
+
+    @Test(priority = 2, description = "02. Batch - JDBC batch, không rewriteBatchedStatements")
+    public void testJdbcBatch() throws Exception {
+        run("jdbc batch", true, false);
+    }
+
+    @Test(priority = 3, description = "03. Batch - JDBC batch + rewriteBatchedStatements (sau)")
+    public void testRewrittenBatch() throws Exception {
+        run("rewritten batch", true, true);
+    }
+
+    private void run(String label, boolean batched, boolean rewrite) throws SQLException {
+        try (Connection connection = connect(rewrite)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TEMPORARY TABLE IF EXISTS bench_orderdetails");
+                statement.execute(CREATE_TABLE);
+            }
+            connection.setAutoCommit(false);
+
+            long statementsBefore = serverStatements(connection);
+            long start = System.nanoTime();
+            try (PreparedStatement ps = connection.prepareStatement(INSERT)) {
+                for (int i = 0; i < ROWS; i++) {
+                    ps.setDouble(1, 10 + i % 100);
+                    ps.setInt(2, 1 + i % 5);
+                    ps.setString(3, "Đang Chờ Xử Lý");
+                    ps.setDouble(4, (10 + i % 100) * (1 + i % 5));
+                    ps.setInt(5, i / 5);
+                    ps.setInt(6, 1 + i % 50);
+                    execute(ps, batched, i);
+                }
+                ps.executeBatch();
+            }
+            connection.commit();
+            long insertNanos = System.nanoTime() - start;
+            long insertStatements = serverStatements(connection) - statementsBefore;
+
+            statementsBefore = serverStatements(connection);
+            start = System.nanoTime();
+            try (PreparedStatement ps = connection.prepareStatement(UPDATE)) {
+                for (int i = 0; i < ROWS; i++) {
+                    ps.setString(1, "Đã Thanh Toán");
+                    ps.setInt(2, i + 1);
+                    execute(ps, batched, i);
+                }
+                ps.executeBatch();
+            }
+            connection.commit();
+            long updateNanos = System.nanoTime() - start;
+            long updateStatements = serverStatements(connection) - statementsBefore;
+
+            report(label, "insert", insertNanos, insertStatements);
+            report(label, "update", updateNanos, updateStatements);
+        }
+    }
+
+    private static void execute(PreparedStatement ps, boolean batched, int i) throws SQLException {
+        if (!batched) {
+            ps.executeUpdate();
+            return;
+        }
+        ps.addBatch();
+        if ((i + 1) % BATCH_SIZE == 0) {
+            ps.executeBatch();
+        }
+    }
+
+    // số câu INSERT / UPDATE server đã chạy trong session này
+    private static long serverStatements(Connection connection) throws SQLException {
+        long count = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SHOW SESSION STATUS WHERE Variable_name IN ('Com_insert', 'Com_update')")) {
+            while (rs.next()) {
+                count += rs.getLong(2);
+            }
+        }
+        return count;
+    }
+
+    private static void report(String label, String operation, long nanos, long statements) {
+        double seconds = nanos / 1_000_000_000.0;
+        LoggerUtil.info(String.format("[batch-benchmark] %s %s: %d rows in %.0f ms, %.0f rows/sec, "
+                        + "%d server statements (%.0f statements/sec)",
+                label, operation, ROWS, nanos / 1_000_000.0, ROWS / seconds, statements, statements / seconds));
+    }
+
+    private static Connection connect(boolean rewrite) throws SQLException {
+        String url = URL.replaceAll("([?&])rewriteBatchedStatements=[^&]*&?", "$1");
+        if (!url.endsWith("?") && !url.endsWith("&")) {
+            url += url.contains("?") ? "&" : "?";
+        }
+        url += "rewriteBatchedStatements=" + rewrite;
+        return DriverManager.getConnection(url, USER, PASSWORD);
+    }
+}
@@ -0,0 +1,83 @@
+package com.java.automation.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.java.entity.MailInfo;
+import com.java.repository.MailOutboxRepository;
+
+/**
+ * mail_outbox trong bộ nhớ cho kịch bản "in-memory hand-off" của
+ * MailThroughputBenchmark: insert() chỉ thêm vào ConcurrentLinkedQueue nên
+ * thời gian queue() đo được là trao tay trong bộ nhớ, không phải INSERT mà
+ * production chạy trên luồng request (xem các kịch bản mail_outbox H2).
+ * Chỉ giữ các mail đang chờ; mail đã gửi chỉ được đếm.
+ */
+public class InMemoryMailOutboxRepository extends MailOutboxRepository {
+
+    private final ConcurrentLinkedQueue<PendingMail> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+
+    public InMemoryMailOutboxRepository() {
+        super(null, null);
+    }
+
+    @Override
+    public void insert(MailInfo mail) {
+        pending.add(new PendingMail(ids.incrementAndGet(), 0, mail));
+    }
+
+    @Override
+    public List<PendingMail> claim(String claimToken, int limit) {
+        List<PendingMail> batch = new ArrayList<>(limit);
+        PendingMail mail;
+        while (batch.size() < limit && (mail = pending.poll()) != null) {
+            batch.add(mail);
+        }
+        return batch;
+    }
+
+    @Override
+    public void markSent(List<Long> mailIds) {
+        sent.addAndGet(mailIds.size());
+    }
+
+    @Override
+    public void reschedule(long mailId, Date nextAttemptAt, String error) {
+        // sink luôn nhận mail, lỗi ở đây là lỗi của benchmark
+        dead.incrementAndGet();
+    }
+
+    @Override
+    public void markDead(long mailId, String error) {
+        dead.incrementAndGet();
+    }
+
+    @Override
+    public int releaseStaleClaims(Date claimedBefore) {
+        return 0;
+    }
+
+    @Override
+    public long countPending() {
+        return pending.size();
+    }
+
+    @Override
+    public int deleteSentOlderThan(Date sentBefore) {
+        return 0;
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getDeadCount() {
+        return dead.get();
+    }
+}
@@ -0,0 +1,283 @@
+package com.java.automation.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.automation.utils.LoggerUtil;
+import com.java.entity.MailInfo;
+import com.java.repository.MailOutboxRepository;
+import com.java.service.MailTemplateService;
+import com.java.service.impl.SendMailServiceImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Benchmark hàng đợi mail và đường gửi SMTP của SendMailServiceImpl.
+ *
+ * Không nằm trong testng.xml và không cần mạng hay MySQL: SMTP là SmtpSink
+ * trên loopback. Các kịch bản hàng đợi chạy trên MailOutboxRepository thật
+ * (JdbcTemplate, pool Hikari) với bảng mail_outbox trong H2 nhúng, schema
+ * migrate từ db/h2 như profile h2: thời gian queue() là thời gian INSERT mà
+ * luồng request phải chờ trong production. Kịch bản cuối dùng
+ * InMemoryMailOutboxRepository và chỉ đo việc trao tay trong bộ nhớ.
+ * Chạy riêng:
+ *
+ *   mvn test -Dtest=MailThroughputBenchmark
+ *   mvn test -Dtest=MailThroughputBenchmark -Dbenchmark.mail.count=20000 -Dbenchmark.mail.workers=4
+ *
+ * Kết quả (msgs/sec, p99 thời gian queue(), bộ nhớ) được ghi ra log. Với
+ * mail_outbox H2, bộ nhớ giữ lại cho mỗi mail gồm cả dòng trong bảng H2.
+ */
+public class MailThroughputBenchmark {
+
+    private static final int COUNT = Integer.getInteger("benchmark.mail.count", 2000);
+    private static final int DIRECT_COUNT = Integer.getInteger("benchmark.mail.direct-count", 200);
+    private static final int PRODUCERS = Integer.getInteger("benchmark.mail.producers", 4);
+    private static final int WORKERS = Integer.getInteger("benchmark.mail.workers", 2);
+    private static final int BATCH_SIZE = Integer.getInteger("benchmark.mail.batch-size", 20);
+    private static final long TIMEOUT_MS = Long.getLong("benchmark.mail.timeout-ms", 120000);
+
+    private static final String BODY = "<h3>Xin chào</h3><p>Cảm ơn bạn đã đặt hàng tại Vegana Store.</p>".repeat(10);
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private SmtpSink sink;
+    private JavaMailSenderImpl mailSender;
+    private MailTemplateService templateService;
+    private SendMailServiceImpl service;
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private MailOutboxRepository jdbcOutbox;
+    private boolean started;
+
+    @BeforeClass
+    public void startSink() throws Exception {
+        sink = new SmtpSink();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(sink.getPort());
+        mailSender.setDefaultEncoding("UTF-8");
+        Properties props = new Properties();
+        props.put("mail.smtp.auth", "false");
+        props.put("mail.smtp.connectiontimeout", "5000");
+        props.put("mail.smtp.timeout", "5000");
+        mailSender.setJavaMailProperties(props);
+
+        templateService = new MailTemplateService();
+        ReflectionTestUtils.setField(templateService, "defaultLocale", "vi");
+        templateService.precompile();
+
+        // H2 nhúng chế độ MySQL như profile h2; pool đủ cho producer + worker
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:mail_benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(PRODUCERS + WORKERS + 2);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/h2").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcOutbox = new MailOutboxRepository(jdbcTemplate, new ObjectMapper());
+    }
+
+    @AfterMethod
+    public void stopService() {
+        if (started) {
+            ReflectionTestUtils.invokeMethod(service, "stop");
+        }
+        service = null;
+        started = false;
+        sink.reset();
+        jdbcTemplate.update("DELETE FROM mail_outbox");
+    }
+
+    @AfterClass
+    public void stopSink() throws Exception {
+        sink.close();
+        dataSource.close();
+    }
+
+    @Test(priority = 1, description = "01. Mail - Gửi trực tiếp, mỗi mail một kết nối SMTP")
+    public void testDirectSendThroughput() throws Exception {
+        service = newService(jdbcOutbox);
+        long start = System.nanoTime();
+        for (int i = 0; i < DIRECT_COUNT; i++) {
+            service.send(new MailInfo("user" + i + "@vegana.test", "Vegana Store", BODY));
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Assert.assertTrue(sink.awaitMessages(DIRECT_COUNT, TIMEOUT_MS), "SMTP sink không nhận đủ mail");
+        LoggerUtil.info(String.format("[mail-benchmark] direct send: %d mails, %.1f msgs/sec, %d SMTP sessions",
+                DIRECT_COUNT, rate(DIRECT_COUNT, elapsed), sink.getSessionCount()));
+    }
+
+    @Test(priority = 2, description = "02. Mail - Hàng đợi mail_outbox (H2) với body HTML dựng sẵn")
+    public void testQueueThroughput() throws Exception {
+        runQueueBenchmark("queue (body, mail_outbox H2)", jdbcOutbox, this::countDead,
+                i -> new MailInfo("user" + i + "@vegana.test", "Vegana Store", BODY));
+    }
+
+    @Test(priority = 3, description = "03. Mail - Hàng đợi mail_outbox (H2) với template dựng trên worker")
+    public void testQueueTemplateThroughput() throws Exception {
+        runQueueBenchmark("queue (template, mail_outbox H2)", jdbcOutbox, this::countDead,
+                i -> new MailInfo("user" + i + "@vegana.test", "Vegana Store",
+                "order-placed", i % 2 == 0 ? "vi" : "en",
+                Map.of("receiver", "Khách hàng " + i, "orderDate", "2024-01-01", "totalPrice", 120.5 + i)));
+    }
+
+    // không phải đường gửi thật: queue() chỉ thêm vào ConcurrentLinkedQueue, không có INSERT
+    @Test(priority = 4, description = "04. Mail - Chỉ trao tay trong bộ nhớ (không INSERT mail_outbox)")
+    public void testInMemoryHandOffThroughput() throws Exception {
+        InMemoryMailOutboxRepository outbox = new InMemoryMailOutboxRepository();
+        runQueueBenchmark("in-memory hand-off only", outbox, outbox::getDeadCount,
+                i -> new MailInfo("user" + i + "@vegana.test", "Vegana Store", BODY));
+    }
+
+    /**
+     * Pha 1: các producer gọi queue() khi worker chưa chạy, đo thời gian từng lần gọi
+     * và bộ nhớ giữ lại cho mỗi mail chờ gửi.
+     * Pha 2: khởi động worker, đo tốc độ gửi hết hàng đợi và heap cao nhất khi gửi.
+     */
+    private void runQueueBenchmark(String name, MailOutboxRepository outbox, LongSupplier deadCount,
+            MailFactory factory) throws Exception {
+        service = newService(outbox);
+
+        long heapBefore = usedHeapAfterGc();
+        long[] latencies = new long[COUNT];
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        for (int p = 0; p < PRODUCERS; p++) {
+            producers.execute(() -> {
+                try {
+                    ready.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                int i;
+                while ((i = next.getAndIncrement()) < COUNT) {
+                    MailInfo mail = factory.create(i);
+                    long start = System.nanoTime();
+                    service.queue(mail);
+                    latencies[i] = System.nanoTime() - start;
+                }
+            });
+        }
+        long enqueueStart = System.nanoTime();
+        ready.countDown();
+        producers.shutdown();
+        Assert.assertTrue(producers.awaitTermination(TIMEOUT_MS, TimeUnit.MILLISECONDS), "Producer không kết thúc");
+        long enqueueElapsed = System.nanoTime() - enqueueStart;
+        long heapQueued = usedHeapAfterGc();
+
+        AtomicLong peakHeap = new AtomicLong(memory.getHeapMemoryUsage().getUsed());
+        ScheduledSampler sampler = new ScheduledSampler(() ->
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max));
+        long drainStart = System.nanoTime();
+        ReflectionTestUtils.invokeMethod(service, "start");
+        started = true;
+        boolean drained = sink.awaitMessages(COUNT, TIMEOUT_MS);
+        long drainElapsed = System.nanoTime() - drainStart;
+        sampler.stop();
+
+        Assert.assertTrue(drained, "SMTP sink chỉ nhận " + sink.getMessageCount() + "/" + COUNT + " mail");
+        Assert.assertEquals(deadCount.getAsLong(), 0, "Có mail gửi lỗi");
+
+        Arrays.sort(latencies);
+        LoggerUtil.info(String.format("[mail-benchmark] %s enqueue: %d mails, %d producers, %.1f calls/sec, "
+                        + "p50 %.1f us, p99 %.1f us, max %.1f us, ~%d bytes retained per queued mail",
+                name, COUNT, PRODUCERS, rate(COUNT, enqueueElapsed),
+                percentile(latencies, 0.50) / 1000.0, percentile(latencies, 0.99) / 1000.0,
+                latencies[COUNT - 1] / 1000.0, Math.max(0, heapQueued - heapBefore) / COUNT));
+        LoggerUtil.info(String.format("[mail-benchmark] %s send: %d workers, batch %d, %.1f msgs/sec, "
+                        + "%d SMTP sessions, peak heap %d MB",
+                name, WORKERS, BATCH_SIZE, rate(COUNT, drainElapsed), sink.getSessionCount(),
+                peakHeap.get() / (1024 * 1024)));
+    }
+
+    private SendMailServiceImpl newService(MailOutboxRepository outbox) {
+        SendMailServiceImpl mailService = new SendMailServiceImpl();
+        ReflectionTestUtils.setField(mailService, "sender", mailSender);
+        ReflectionTestUtils.setField(mailService, "mailOutboxRepository", outbox);
+        ReflectionTestUtils.setField(mailService, "mailTemplateService", templateService);
+        ReflectionTestUtils.setField(mailService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(mailService, "workers", WORKERS);
+        ReflectionTestUtils.setField(mailService, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(mailService, "pollMs", 50L);
+        ReflectionTestUtils.setField(mailService, "retryBaseMs", 1000L);
+        ReflectionTestUtils.setField(mailService, "retryMaxMs", 1000L);
+        ReflectionTestUtils.setField(mailService, "maxAttempts", 1);
+        return mailService;
+    }
+
+    private long countDead() {
+        Long dead = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mail_outbox WHERE status = ?", Long.class,
+                MailOutboxRepository.STATUS_DEAD);
+        return dead == null ? 0 : dead;
+    }
+
+    private long usedHeapAfterGc() throws InterruptedException {
+        // vài lần GC để số đo ổn định hơn, vẫn chỉ là ước lượng
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(20);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double rate(int count, long elapsedNanos) {
+        return count / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private interface MailFactory {
+        MailInfo create(int index);
+    }
+
+    /**
+     * Lấy mẫu heap mỗi 10ms trên một luồng daemon
+     */
+    private static final class ScheduledSampler {
+
+        private final ScheduledExecutorService executor =
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "heap-sampler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        ScheduledSampler(Runnable sample) {
+            executor.scheduleAtFixedRate(sample, 0, 10, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.java.automation.benchmark;
+
+import com.java.automation.config.TestConfig;
+import com.java.automation.utils.LoggerUtil;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Đo thời gian POST /registered khi server SMTP nhanh và khi chậm.
+ *
+ * Mail chào mừng chỉ được đưa vào mail_outbox, nên thời gian đăng ký không
+ * được phụ thuộc độ trễ SMTP. Benchmark mở SmtpSink ở localhost:2525 (port
+ * mail của profile h2), đăng ký một loạt tài khoản mới với sink trả lời ngay,
+ * rồi lặp lại khi sink chờ benchmark.register.smtp-delay-ms trước mỗi lời
+ * chào và mỗi xác nhận message. Cả hai lần đều chờ sink nhận đủ mail, để chắc
+ * mail thật sự đi qua server chậm.
+ *
+ * Không nằm trong testng.xml. Cần ứng dụng chạy sẵn ở base.url với profile h2
+ * và giới hạn đăng ký theo IP tắt:
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=h2 \
+ *       -Dspring-boot.run.arguments=--vegana.rate-limit.register.ip-per-minute=0
+ *   mvn test -Dtest=RegistrationLatencyBenchmark
+ *
+ * Ứng dụng không chạy thì benchmark bị skip. Kết quả (p50 / p99 / max) ghi ra log.
+ */
+public class RegistrationLatencyBenchmark {
+
+    private static final int COUNT = Integer.getInteger("benchmark.register.count", 30);
+    private static final int WARMUP = Integer.getInteger("benchmark.register.warmup", 5);
+    private static final int SMTP_PORT = Integer.getInteger("benchmark.smtp.port", 2525);
+    private static final long SMTP_DELAY_MS = Long.getLong("benchmark.register.smtp-delay-ms", 2000);
+    private static final long TIMEOUT_MS = Long.getLong("benchmark.register.timeout-ms", 180000);
+
+    private final String baseUrl = TestConfig.getBaseUrl();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private HttpClient client;
+    private SmtpSink sink;
+    private int registered;
+
+    @BeforeClass
+    public void startSink() throws Exception {
+        client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        try {
+            client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login")).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new SkipException("Ứng dụng không chạy ở " + baseUrl + ": " + e.getMessage());
+        }
+        sink = new SmtpSink(SMTP_PORT);
+        for (int i = 0; i < WARMUP; i++) {
+            register();
+        }
+        Assert.assertTrue(sink.awaitMessages(WARMUP, TIMEOUT_MS),
+                "Mail chào mừng không tới SMTP sink ở port " + SMTP_PORT + " (ứng dụng có chạy profile h2?)");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopSink() throws Exception {
+        if (sink != null) {
+            sink.close();
+        }
+    }
+
+    @Test(priority = 1, description = "01. Đăng ký - SMTP trả lời ngay")
+    public void testRegisterWithFastSmtp() throws Exception {
+        runRegisterBenchmark("fast SMTP", 0);
+    }
+
+    @Test(priority = 2, description = "02. Đăng ký - SMTP chậm")
+    public void testRegisterWithSlowSmtp() throws Exception {
+        long[] latencies = runRegisterBenchmark("SMTP delay " + SMTP_DELAY_MS + " ms", SMTP_DELAY_MS);
+        Assert.assertTrue(percentile(latencies, 0.99) < SMTP_DELAY_MS * 1_000_000L,
+                "POST /registered chờ SMTP: p99 " + percentile(latencies, 0.99) / 1_000_000 + " ms");
+    }
+
+    private long[] runRegisterBenchmark(String name, long smtpDelayMs) throws Exception {
+        sink.reset();
+        sink.setReplyDelayMs(smtpDelayMs);
+        long[] latencies = new long[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            latencies[i] = register();
+        }
+        long sendStart = System.nanoTime();
+        Assert.assertTrue(sink.awaitMessages(COUNT, TIMEOUT_MS),
+                "Chỉ nhận " + sink.getMessageCount() + "/" + COUNT + " mail chào mừng");
+        double drainSeconds = (System.nanoTime() - sendStart) / 1e9;
+
+        Arrays.sort(latencies);
+        LoggerUtil.info(String.format("[register-benchmark] %s: %d registrations, "
+                        + "p50 %.1f ms, p99 %.1f ms, max %.1f ms; mails delivered %.1f s after the last request",
+                name, COUNT, percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                latencies[COUNT - 1] / 1e6, drainSeconds));
+        return latencies;
+    }
+
+    // POST /registered cho một tài khoản mới, trả về thời gian phản hồi (ns)
+    private long register() throws Exception {
+        String id = "rb" + runId + registered++;
+        String form = "customerId=" + id
+                + "&fullname=" + URLEncoder.encode("Benchmark " + id, StandardCharsets.UTF_8)
+                + "&email=" + URLEncoder.encode(id + "@vegana.test", StandardCharsets.UTF_8)
+                + "&password=123456";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/registered"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - start;
+        if (response.statusCode() == 429) {
+            throw new SkipException("Bị giới hạn đăng ký theo IP, chạy ứng dụng với "
+                    + "--vegana.rate-limit.register.ip-per-minute=0");
+        }
+        Assert.assertEquals(response.statusCode(), 200, "POST /registered " + id);
+        Assert.assertTrue(response.body().contains("Đăng kí thành công"), "Đăng ký " + id + " thất bại");
+        return elapsed;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
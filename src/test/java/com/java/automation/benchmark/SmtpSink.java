@@ -0,0 +1,174 @@
+package com.java.automation.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.java.automation.utils.LoggerUtil;
+
+/**
+ * Minimal SMTP server chạy trong JVM, chỉ lắng nghe trên loopback.
+ * Nhận mọi message, bỏ nội dung và đếm số message / số kết nối,
+ * đủ để JavaMailSender gửi như với smtp.gmail.com mà không cần mạng.
+ * setReplyDelayMs giả lập một server SMTP chậm.
+ */
+public class SmtpSink implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smtp-sink");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicInteger sessions = new AtomicInteger();
+
+    private volatile boolean running = true;
+    private volatile long replyDelayMs;
+
+    public SmtpSink() throws IOException {
+        this(0);
+    }
+
+    /**
+     * @param port port cố định (vd. 2525 của profile h2), 0 để lấy port ngẫu nhiên
+     */
+    public SmtpSink(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        connections.execute(this::acceptLoop);
+    }
+
+    /**
+     * Port được cấp ngẫu nhiên khi khởi động
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long getMessageCount() {
+        return messages.get();
+    }
+
+    public int getSessionCount() {
+        return sessions.get();
+    }
+
+    /**
+     * Chờ đến khi sink nhận đủ số message
+     * @return false nếu hết thời gian chờ
+     */
+    public boolean awaitMessages(long expected, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (messages.get() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    /**
+     * Độ trễ trước lời chào 220 và trước khi xác nhận mỗi message (250 sau DATA),
+     * tức hai lần chờ cho kết nối đầu và một lần cho mỗi mail
+     */
+    public void setReplyDelayMs(long replyDelayMs) {
+        this.replyDelayMs = replyDelayMs;
+    }
+
+    public void reset() {
+        messages.set(0);
+        sessions.set(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        connections.shutdownNow();
+        try {
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (running) {
+                    LoggerUtil.warn("SMTP sink accept failed: " + e);
+                }
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        sessions.incrementAndGet();
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             OutputStream out = socket.getOutputStream()) {
+            delay();
+            reply(out, "220 localhost SMTP sink");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                switch (command) {
+                    case "EHLO":
+                        reply(out, "250-localhost\r\n250-8BITMIME\r\n250 SMTPUTF8");
+                        break;
+                    case "DATA":
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        // bỏ qua nội dung đến dòng "."
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // discard
+                        }
+                        delay();
+                        messages.incrementAndGet();
+                        reply(out, "250 OK");
+                        break;
+                    case "QUIT":
+                        reply(out, "221 Bye");
+                        return;
+                    default:
+                        // HELO, MAIL, RCPT, RSET, NOOP...
+                        reply(out, "250 OK");
+                }
+            }
+        } catch (SocketException e) {
+            // client đóng kết nối
+        } catch (IOException e) {
+            LoggerUtil.warn("SMTP sink session failed: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        long delayMs = replyDelayMs;
+        if (delayMs > 0) {
+            Thread.sleep(delayMs);
+        }
+    }
+
+    private static void reply(OutputStream out, String response) throws IOException {
+        out.write((response + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+}
@@ -5,7 +5,9 @@ import java.io.IOException;
 import java.util.Properties;
 
 /**
- * Configuration class for test properties
+ * Configuration class for test properties.
+ * A system property (-Dbase.url=...) or environment variable (BASE_URL)
+ * overrides the value in test.properties.
  */
 public class TestConfig {
     private static Properties properties;
@@ -23,11 +25,20 @@ public class TestConfig {
     }
 
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = System.getenv(key.toUpperCase().replace('.', '_').replace('-', '_'));
+        }
+        return value != null ? value : properties.getProperty(key);
+    }
+
+    public static String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return value != null ? value : defaultValue;
     }
 
     public static String getBaseUrl() {
-        return properties.getProperty("base.url", "http://localhost:9090");
+        return getProperty("base.url", "http://localhost:9090");
     }
 
     public static String getBrowser() {
@@ -0,0 +1,134 @@
+package com.java.automation.tests.database;
+
+import com.java.automation.config.TestConfig;
+import com.java.automation.utils.LoggerUtil;
+import com.java.repository.InventoryRepository;
+import com.java.repository.OrderDetailRepository;
+import com.java.repository.ProductRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kiểm tra bằng EXPLAIN rằng các truy vấn báo cáo, tìm kiếm và danh sách
+ * dùng đúng index của db/pending/V2_1__performance_indexes.sql. Các index này
+ * chỉ được chuyển vào db/migration sau khi test này pass trên MySQL.
+ *
+ * Câu SQL lấy thẳng từ @Query của repository nên không lệch với code. Cần
+ * MySQL đã được ứng dụng migrate kèm db/pending (khởi động với
+ * --spring.flyway.locations=classpath:db/migration,classpath:db/pending);
+ * không kết nối được hoặc chưa có V2_1 thì các test bị skip. Cấu hình db.*
+ * trong test.properties.
+ */
+public class QueryPlanTest {
+
+    private Connection connection;
+
+    @BeforeClass
+    public void connect() throws SQLException {
+        String url = TestConfig.getProperty("db.url");
+        try {
+            connection = DriverManager.getConnection(url, TestConfig.getProperty("db.username"),
+                    TestConfig.getProperty("db.password"));
+        } catch (SQLException e) {
+            throw new SkipException("MySQL không kết nối được (" + url + "): " + e.getMessage());
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT COUNT(*) FROM flyway_schema_history WHERE version = '2.1' AND success = 1");
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next() || rs.getInt(1) == 0) {
+                throw new SkipException("Migration V2_1 (db/pending) chưa chạy trên " + url);
+            }
+        } catch (SQLException e) {
+            throw new SkipException("Chưa có flyway_schema_history trên " + url + ": " + e.getMessage());
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void close() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test(priority = 1, description = "01. Query plan - Báo cáo theo năm dùng idx_orders_year")
+    public void testReportByYear() throws Exception {
+        assertUsesIndex(query(OrderDetailRepository.class, "repoWhereYear"), "od", "idx_orders_year");
+    }
+
+    @Test(priority = 2, description = "02. Query plan - Báo cáo theo tháng dùng idx_orders_month")
+    public void testReportByMonth() throws Exception {
+        assertUsesIndex(query(OrderDetailRepository.class, "repoWhereMonth"), "od", "idx_orders_month");
+    }
+
+    @Test(priority = 3, description = "03. Query plan - Báo cáo theo quý dùng idx_orders_quarter")
+    public void testReportByQuarter() throws Exception {
+        assertUsesIndex(query(OrderDetailRepository.class, "repoWhereQUARTER"), "od", "idx_orders_quarter");
+    }
+
+    @Test(priority = 4, description = "04. Query plan - Doanh thu (revenue_view) dùng idx_orderdetails_status")
+    public void testRevenueView() throws Exception {
+        assertUsesIndex("SELECT total_revenue FROM revenue_view LIMIT 1", "od", "idx_orderdetails_status");
+    }
+
+    @Test(priority = 5, description = "05. Query plan - Tồn kho một sản phẩm dùng idx_orderdetails_product_status")
+    public void testAvailableQuantity() throws Exception {
+        String sql = ReflectionTestUtils.getField(InventoryRepository.class, "AVAILABLE_SQL")
+                + "WHERE p.productId = ? GROUP BY p.productId, p.quantity";
+        assertUsesIndex(sql, "od", "idx_orderdetails_product_status", "Đang Chờ Xử Lý", 1);
+    }
+
+    @Test(priority = 6, description = "06. Query plan - 10 sản phẩm mới nhất dùng idx_products_enteredDate")
+    public void testLatestProducts() throws Exception {
+        assertUsesIndex(query(ProductRepository.class, "listProduct10"), "products", "idx_products_enteredDate");
+    }
+
+    @Test(priority = 7, description = "07. Query plan - Tìm sản phẩm theo tên dùng ft_products_name")
+    public void testSearchProduct() throws Exception {
+        assertUsesIndex(query(ProductRepository.class, "searchProductFullText", String.class), "products",
+                "ft_products_name", "\"rau\"");
+    }
+
+    @Test(priority = 8, description = "08. Query plan - Giỏ hàng theo khách hàng dùng uk_carts_customer_product")
+    public void testCartByCustomer() throws Exception {
+        assertUsesIndex("SELECT * FROM cart_product_view WHERE customerId = ?", "c", "uk_carts_customer_product",
+                "khai00");
+    }
+
+    private static String query(Class<?> repository, String method, Class<?>... parameterTypes) throws Exception {
+        return repository.getMethod(method, parameterTypes).getAnnotation(Query.class).value();
+    }
+
+    private void assertUsesIndex(String sql, String table, String index, Object... parameters) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        String key = null;
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql.trim().replaceAll(";$", ""))) {
+            for (int i = 0; i < parameters.length; i++) {
+                ps.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString("table") + ": type=" + rs.getString("type") + ", key="
+                            + rs.getString("key") + ", rows=" + rs.getString("rows") + ", " + rs.getString("Extra"));
+                    if (table.equals(rs.getString("table"))) {
+                        key = rs.getString("key");
+                    }
+                }
+            }
+        }
+        LoggerUtil.info("[query-plan] " + index + " -> " + plan);
+        Assert.assertEquals(key, index, "Bảng " + table + " không dùng index " + index + ": " + plan);
+    }
+}
@@ -0,0 +1,106 @@
+package com.java.automation.tests.database;
+
+import com.java.automation.config.TestConfig;
+import com.java.automation.utils.LoggerUtil;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Giữ số câu SQL của mỗi trang trong một ngân sách, để N+1 (một SELECT cho
+ * mỗi dòng của bảng) làm test fail thay vì chỉ làm trang chậm dần theo dữ liệu.
+ *
+ * Số câu SQL đọc từ header X-Sql-Statements mà ứng dụng gửi khi
+ * vegana.jdbc.request-stats.header=true (bật sẵn ở profile h2). Ngân sách
+ * tính cả lúc cache cấp 2 còn trống, nên mỗi trang được gọi hai lần. Ứng dụng
+ * không chạy hoặc không gửi header thì các test bị skip. base.url, admin.username
+ * và admin.password lấy từ test.properties, ghi đè được bằng -D hoặc biến môi
+ * trường (BASE_URL, ADMIN_USERNAME, ADMIN_PASSWORD).
+ */
+public class SqlBudgetTest {
+
+    private static final String HEADER = "X-Sql-Statements";
+
+    private static final String ADMIN_USERNAME = TestConfig.getProperty("admin.username", "admin");
+    private static final String ADMIN_PASSWORD = TestConfig.getProperty("admin.password", "123123");
+
+    private final String baseUrl = TestConfig.getBaseUrl();
+
+    private HttpClient client;
+
+    @BeforeClass
+    public void login() throws Exception {
+        client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpResponse<Void> home;
+        try {
+            home = get("/");
+        } catch (IOException e) {
+            throw new SkipException("Ứng dụng không chạy ở " + baseUrl + ": " + e.getMessage());
+        }
+        if (home.headers().firstValue(HEADER).isEmpty()) {
+            throw new SkipException("Ứng dụng không gửi header " + HEADER
+                    + " (chạy với vegana.jdbc.request-stats.header=true hoặc profile h2)");
+        }
+        String form = "customerId=" + URLEncoder.encode(ADMIN_USERNAME, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(ADMIN_PASSWORD, StandardCharsets.UTF_8);
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/doLogin"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        String location = response.headers().firstValue("Location").orElse("");
+        Assert.assertTrue(location.contains("/admin/home"), "Đăng nhập admin thất bại, Location: " + location);
+    }
+
+    @Test(priority = 1, description = "01. SQL budget - Danh sách đơn hàng (OrderController.orders)")
+    public void testAdminOrders() throws Exception {
+        assertBudget("/admin/orders", 3);
+    }
+
+    @Test(priority = 2, description = "02. SQL budget - Danh sách sản phẩm admin (ProductController.showProduct)")
+    public void testAdminProducts() throws Exception {
+        assertBudget("/admin/products", 3);
+    }
+
+    @Test(priority = 3, description = "03. SQL budget - Trang chủ")
+    public void testHome() throws Exception {
+        assertBudget("/", 6);
+    }
+
+    @Test(priority = 4, description = "04. SQL budget - Trang shop")
+    public void testShop() throws Exception {
+        assertBudget("/products", 3);
+    }
+
+    private void assertBudget(String path, int budget) throws Exception {
+        for (int i = 1; i <= 2; i++) {
+            HttpResponse<Void> response = get(path);
+            Assert.assertEquals(response.statusCode(), 200, "GET " + path);
+            int statements = Integer.parseInt(response.headers().firstValue(HEADER)
+                    .orElseThrow(() -> new AssertionError("GET " + path + " không có header " + HEADER)));
+            LoggerUtil.info("[sql-budget] GET " + path + " (lần " + i + "): " + statements + " câu SQL, ngân sách "
+                    + budget);
+            Assert.assertTrue(statements <= budget, "GET " + path + " chạy " + statements
+                    + " câu SQL, vượt ngân sách " + budget + " (N+1?)");
+        }
+    }
+
+    private HttpResponse<Void> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+}